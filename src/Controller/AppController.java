@@ -5,12 +5,32 @@ import Model.Student;
 import Model.User;
 import Repositories.*;
 import Model.Module;
+import Service.BatchReport;
+import Service.ConflictReport;
+import Service.GenerationResult;
+import Service.RescheduleResult;
+import Service.Rescheduler;
+import Service.ScheduleConflict;
+import Service.SchedulingResult;
 import Service.SchedulingService;
+import Service.TimetableGenerator;
 import View.CLIView;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.time.LocalTime;
 import java.time.DayOfWeek;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 
 /**
  * Main controller of the system.
@@ -25,10 +45,17 @@ public class AppController {
     private ProgrammeRepository programmeRepo;
 
     private SchedulingService schedulingService;
+    private Journal journal; // null if the journal could not be opened
     private CLIView cliView; // The CLI for input/output
 
     private User currentUser;
 
+    /** Number of search orderings tried in parallel when generating a timetable. */
+    private static final int GENERATION_ATTEMPTS = 8;
+
+    /** Journal size beyond which saving rewrites the output CSVs and a new snapshot and starts an empty journal. */
+    private static final long JOURNAL_COMPACT_BYTES = 4L << 20;
+
     /**
      * Constructor for AppController, initialises all repositories and schedulingService and CLIView.
      */
@@ -77,6 +104,9 @@ public class AppController {
                 menuOptions.add("Add New Room");
                 menuOptions.add("Schedule New Session");
                 menuOptions.add("Save to CSVs");
+                menuOptions.add("Generate Timetable from Modules");
+                menuOptions.add("Find Free Room");
+                menuOptions.add("Reschedule for Room/Lecturer Outage");
             } else if (role.equals("Lecturer") || role.equals("Student")) {
                 menuOptions.add("View My Timetable");
             }
@@ -117,27 +147,171 @@ public class AppController {
     }
 
     /**
-     * Seeds test data from CSVs using repositories.
+     * Seeds test data from the snapshot if it is current, otherwise from CSVs using repositories,
+     * then replays the changes journaled since.
      */
     private void seedData() {
-        System.out.println("Loading system data from CSV files...");
+        long started = System.nanoTime();
+        Path snapshot = Paths.get(ModelSnapshot.DEFAULT_PATH);
+        long generation = -1;
+        try {
+            generation = ModelSnapshot.read(snapshot, programmeRepo, moduleRepo, roomRepo, groupRepo, userRepo, sessionRepo);
+        } catch (IOException e) {
+            System.err.println("Ignoring snapshot: " + e.getMessage());
+        }
+
+        boolean recorded = generation >= 0;
+        if (recorded) {
+            System.out.println("Data loaded from snapshot in " + (System.nanoTime() - started) / 1_000_000 + " ms.");
+        } else {
+            System.out.println("Loading system data from CSV files...");
+            boolean complete = loadCsvData();
+
+            // Save a snapshot so the next start can skip the CSVs, unless a file failed to load, as the
+            // snapshot would then hide the missing data until the CSVs change. Fresh CSV data starts a
+            // new generation, so a journal written against older data is never replayed onto it.
+            generation = System.currentTimeMillis();
+            if (!complete) {
+                System.err.println("Not writing a snapshot, as the CSV data did not load completely.");
+            } else {
+                try {
+                    ModelSnapshot.write(snapshot, generation, programmeRepo, moduleRepo, roomRepo, groupRepo, userRepo, sessionRepo);
+                    recorded = true;
+                } catch (IOException e) {
+                    System.err.println("Could not write snapshot: " + e.getMessage());
+                }
+            }
+        }
+
+        // Replay the changes made since the snapshot, then record new ones. Without a snapshot the next
+        // start loads the CSVs again under a new generation and would set aside anything journaled now,
+        // so the journal is left untouched and changes last until the next save.
+        if (recorded) {
+            openJournal(generation);
+        } else {
+            System.err.println("Running without a journal, as no snapshot records this load; changes last until the next save.");
+        }
+
+        System.out.println("Data loading complete in " + (System.nanoTime() - started) / 1_000_000 + " ms. System ready.");
+    }
+
+    /**
+     * Loads every repository from its CSV file. The loads form a dependency graph: programmes,
+     * modules and rooms need nothing and load at the same time, groups start as soon as programmes
+     * are in, users as soon as groups are, and sessions once users, rooms and groups are all ready.
+     * The time each stage took, and when it started, is printed once everything is loaded.
+     *
+     * @return {@code true} if every file was read
+     */
+    private boolean loadCsvData() {
+        long started = System.nanoTime();
+        Map<String, long[]> timings = new ConcurrentHashMap<>();
+        Set<String> failed = ConcurrentHashMap.newKeySet();
+        boolean complete = true;
+        ExecutorService loaders = Executors.newFixedThreadPool(3);
+        try {
+            // 1. Load basic entities (no external dependencies)
+            CompletableFuture<Void> programmes = CompletableFuture.runAsync(
+                    timed("Programmes", started, timings, failed, programmeRepo::loadData), loaders);
+            CompletableFuture<Void> modules = CompletableFuture.runAsync(
+                    timed("Modules", started, timings, failed, moduleRepo::loadData), loaders);
+            CompletableFuture<Void> rooms = CompletableFuture.runAsync(
+                    timed("Rooms", started, timings, failed, roomRepo::loadData), loaders);
+
+            // 2. Load Student Groups (Requires Programme data)
+            CompletableFuture<Void> groups = programmes.thenRunAsync(
+                    timed("Student groups", started, timings, failed, () -> groupRepo.loadData(programmeRepo)), loaders);
+
+            // 3. Load Users (Requires StudentGroup data)
+            CompletableFuture<Void> users = groups.thenRunAsync(
+                    timed("Users", started, timings, failed, () -> userRepo.loadData(groupRepo)), loaders);
+
+            // 4. Load Sessions (Requires users, rooms and groups to resolve and schedule each session).
+            // It runs here, as its parser fans out to the common pool itself.
+            CompletableFuture.allOf(users, rooms).join();
+            timed("Sessions", started, timings, failed, () -> sessionRepo.loadData(userRepo, roomRepo, groupRepo, moduleRepo)).run();
+            modules.join();
+        } catch (CompletionException e) {
+            System.err.println("Error loading data: " + e.getCause());
+            complete = false;
+        } finally {
+            loaders.shutdown();
+        }
+
+        for (String stage : List.of("Programmes", "Modules", "Rooms", "Student groups", "Users", "Sessions")) {
+            long[] timing = timings.get(stage);
+            if (timing != null) {
+                System.out.println("  " + stage + " loaded in " + timing[1] / 1_000_000 + " ms (started at "
+                        + timing[0] / 1_000_000 + " ms)");
+            }
+        }
+        return complete && failed.isEmpty();
+    }
+
+    /**
+     * Wraps a load so that its start, relative to {@code origin}, and duration are recorded under its name,
+     * and its name is added to {@code failed} if it reports that its file could not be read.
+     */
+    private static Runnable timed(String stage, long origin, Map<String, long[]> timings, Set<String> failed,
+                                  BooleanSupplier load) {
+        return () -> {
+            long start = System.nanoTime();
+            if (!load.getAsBoolean()) {
+                failed.add(stage);
+            }
+            timings.put(stage, new long[]{start - origin, System.nanoTime() - start});
+        };
+    }
 
-        // 1. Load basic entities (no external dependencies)
-        // These methods will need the proper java.io.* imports in their classes
-        programmeRepo.loadData();
-        moduleRepo.loadData();
-        roomRepo.loadData();
+    /**
+     * Opens the journal, replaying the changes it holds for the loaded generation, and starts recording.
+     * If it cannot be opened the system runs without one and changes last only until the next save.
+     */
+    private void openJournal(long generation) {
+        Journal.Handler replay = new Journal.Handler() {
+            @Override
+            public void roomAdded(Room room) {
+                roomRepo.add(room);
+            }
 
-        // 2. Load Student Groups (Requires Programme data)
-        groupRepo.loadData(programmeRepo);
+            @Override
+            public void moduleAdded(Module module) {
+                moduleRepo.add(module);
+            }
 
-        // 3. Load Users (Requires StudentGroup data)
-        userRepo.loadData(groupRepo);
+            @Override
+            public void sessionScheduled(Session session) {
+                BatchReport report = schedulingService.scheduleAll(List.of(session), SchedulingService.CommitPolicy.ATOMIC);
+                for (SchedulingResult failure : report.getFailures()) {
+                    System.err.println("Journal replay could not schedule " + failure);
+                }
+            }
 
-        // 4. Load Sessions (Requires ALL repositories)
-        sessionRepo.loadData(userRepo, roomRepo, groupRepo, moduleRepo);
+            @Override
+            public void sessionRemoved(String sessionID) {
+                if (!schedulingService.removeSession(sessionID)) {
+                    System.err.println("Journal replay could not remove session " + sessionID + ": it is not scheduled.");
+                }
+            }
+        };
+        try {
+            journal = Journal.open(Paths.get(Journal.DEFAULT_PATH), generation, replay);
+            schedulingService.setJournal(journal);
+        } catch (IOException e) {
+            System.err.println("Could not open journal, changes will not survive a restart: " + e.getMessage());
+        }
+    }
 
-        System.out.println("Data loading complete. System ready.");
+    /** Makes a room or module added through the menu durable; sessions are journaled by the scheduling service. */
+    private void syncJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error: could not write journal: " + e.getMessage());
+        }
     }
 
     /**
@@ -162,6 +336,15 @@ public class AppController {
             case 5: // Save to CSVs
                 handleSaveCSVs();
                 break;
+            case 6: // Generate Timetable
+                handleGenerateTimetable();
+                break;
+            case 7: // Find Free Room
+                handleFindFreeRoom();
+                break;
+            case 8: // Reschedule for Outage
+                handleRescheduleOutage();
+                break;
             default:
                 cliView.displayMessage("Invalid choice. Please try again.");
                 break;
@@ -270,6 +453,13 @@ public class AppController {
                 cliView.displayMessage("Session " + id + " scheduled successfully.");
             } else {
                 cliView.displayMessage("Scheduling failed. A conflict was found. Check details above.");
+                ConflictReport report = schedulingService.explainConflicts(newSession);
+                for (String error : report.getErrors()) {
+                    cliView.displayMessage("- " + error);
+                }
+                for (ScheduleConflict conflict : report.getConflicts()) {
+                    cliView.displayMessage("- " + conflict);
+                }
             }
 
         } catch (IllegalArgumentException e) {
@@ -280,22 +470,170 @@ public class AppController {
     }
 
     /**
-     * Handles the saving of all current timetable data to new output CSVs.
+     * Handles generating sessions for every programme's modules and scheduling those that fit.
+     */
+    private void handleGenerateTimetable() {
+        cliView.displayMessage("--- Generate Timetable ---");
+
+        TimetableGenerator generator = new TimetableGenerator(programmeRepo, moduleRepo, roomRepo, groupRepo, userRepo, sessionRepo);
+        GenerationResult result = generator.generateParallel(ForkJoinPool.commonPool(), GENERATION_ATTEMPTS, 0L);
+        BatchReport report = schedulingService.scheduleAll(result.getSessions(), SchedulingService.CommitPolicy.PARTIAL);
+
+        cliView.displayMessage("Generated " + report.getScheduledCount() + " sessions in " + result.getElapsedMillis() + " ms.");
+        for (String unplaced : result.getUnplaced()) {
+            cliView.displayMessage("Not placed: " + unplaced);
+        }
+        for (SchedulingResult failure : report.getFailures()) {
+            cliView.displayMessage("Not scheduled: " + failure);
+        }
+    }
+
+    /**
+     * Handles searching for rooms that are free for a given type, size and time.
+     */
+    private void handleFindFreeRoom() {
+        cliView.displayMessage("--- Find Free Room ---");
+
+        try {
+            String typeStr = cliView.requestInput("Do you need a Lab? (yes/no): ").toLowerCase();
+            boolean isLab = typeStr.equals("yes") || typeStr.equals("y");
+            Room.RoomType type = isLab ? Room.RoomType.LAB : Room.RoomType.CLASSROOM;
+            int capacity = cliView.getUserChoice("Minimum Capacity (integer): ");
+            DayOfWeek day = DayOfWeek.valueOf(cliView.requestInput("Day of Week (e.g., MONDAY): ").toUpperCase());
+            LocalTime startTime = LocalTime.parse(cliView.requestInput("Start Time (HH:mm, e.g., 10:00): "));
+            int duration = cliView.getUserChoice("Duration in minutes (e.g., 60, 120): ");
+
+            List<Room> rooms = roomRepo.findFreeRooms(type, capacity, day, startTime, duration);
+            if (rooms.isEmpty()) {
+                cliView.displayMessage("No free rooms match.");
+            }
+            for (Room room : rooms) {
+                cliView.displayMessage(room.getId() + " (" + room.getCapacity() + " seats)");
+            }
+        } catch (IllegalArgumentException e) {
+            cliView.displayMessage("Input Error: " + e.getMessage());
+        } catch (Exception e) {
+            cliView.displayMessage("An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles planning new slots for the sessions hit by a room or lecturer outage, and applying the plan if confirmed.
+     */
+    private void handleRescheduleOutage() {
+        cliView.displayMessage("--- Reschedule for Outage ---");
+
+        try {
+            String kind = cliView.requestInput("Is a Room or a Lecturer unavailable? (room/lecturer): ").toLowerCase();
+            String id = cliView.requestInput("ID: ");
+            DayOfWeek day = DayOfWeek.valueOf(cliView.requestInput("Day of Week (e.g., MONDAY): ").toUpperCase());
+            LocalTime from = LocalTime.parse(cliView.requestInput("Unavailable From (HH:mm, e.g., 09:00): "));
+            LocalTime to = LocalTime.parse(cliView.requestInput("Unavailable Until (HH:mm, e.g., 13:00): "));
+
+            Rescheduler rescheduler = new Rescheduler(schedulingService, roomRepo, moduleRepo, userRepo);
+            RescheduleResult result = kind.startsWith("l")
+                    ? rescheduler.rescheduleLecturer(id, day, from, to)
+                    : rescheduler.rescheduleRoom(id, day, from, to);
+
+            cliView.displayMessage(result.getAffected().size() + " sessions affected, planned in " + result.getElapsedMillis() + " ms.");
+            for (Session moved : result.getRelocated()) {
+                cliView.displayMessage("Move " + describe(moved));
+            }
+            for (Session moved : result.getDisplaced()) {
+                cliView.displayMessage("Make room: move " + describe(moved));
+            }
+            for (Session session : result.getUnplaced()) {
+                cliView.displayMessage("No slot found for " + session.getSessionID() + " (" + session.getModuleCode() + ")");
+            }
+            if (result.getAffected().isEmpty()) {
+                return;
+            }
+
+            String confirm = cliView.requestInput("Apply these changes? Unplaced sessions will be removed. (yes/no): ").toLowerCase();
+            if (confirm.equals("yes") || confirm.equals("y")) {
+                BatchReport report = result.getScenario().merge();
+                if (report.getFailures().isEmpty()) {
+                    cliView.displayMessage("Changes applied.");
+                } else {
+                    cliView.displayMessage("Timetable changed while planning; nothing was applied.");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            cliView.displayMessage("Input Error: " + e.getMessage());
+        } catch (Exception e) {
+            cliView.displayMessage("An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    private static String describe(Session session) {
+        return session.getSessionID() + " (" + session.getModuleCode() + ") to " + session.getDay() + " "
+                + session.getStartTime() + " in " + session.getRoomID() + " with " + session.getLecturerID();
+    }
+
+    /**
+     * Handles Save. Every change is appended to the journal as it is made, so saving only makes sure the
+     * journal is on disk. The output CSVs and the snapshot are rewritten in full only once the journal has
+     * grown past {@link #JOURNAL_COMPACT_BYTES} and is compacted. Without a journal the output CSVs are the
+     * only copy of the changes, so then every save rewrites those that changed.
      */
     private void handleSaveCSVs() {
-        userRepo.saveData();
-        moduleRepo.saveData();
-        roomRepo.saveData();
-        sessionRepo.saveData();
-        groupRepo.saveData();
-        programmeRepo.saveData();
+        if (journal == null) {
+            saveChangedCSVs();
+            return;
+        }
+        try {
+            journal.sync();
+            if (journal.size() <= JOURNAL_COMPACT_BYTES) {
+                System.out.println("All changes are saved in the journal.");
+                return;
+            }
+            saveChangedCSVs();
+            long next = journal.getGeneration() + 1;
+            ModelSnapshot.write(Paths.get(ModelSnapshot.DEFAULT_PATH), next,
+                    programmeRepo, moduleRepo, roomRepo, groupRepo, userRepo, sessionRepo);
+            journal.reset(next);
+            System.out.println("Journal compacted into new CSV files and a new snapshot.");
+        } catch (IOException e) {
+            System.err.println("Could not save: " + e.getMessage());
+        }
+    }
+
+    /** Writes the output CSV of every repository whose data changed since it was last written. */
+    private void saveChangedCSVs() {
+        int saved = 0;
+        if (userRepo.isDirty()) {
+            userRepo.saveData();
+            saved++;
+        }
+        if (moduleRepo.isDirty()) {
+            moduleRepo.saveData();
+            saved++;
+        }
+        if (roomRepo.isDirty()) {
+            roomRepo.saveData();
+            saved++;
+        }
+        if (sessionRepo.isDirty()) {
+            sessionRepo.saveData();
+            saved++;
+        }
+        if (groupRepo.isDirty()) {
+            groupRepo.saveData();
+            saved++;
+        }
+        if (programmeRepo.isDirty()) {
+            programmeRepo.saveData();
+            saved++;
+        }
+        if (saved == 0) {
+            System.out.println("Nothing has changed since the last save.");
+        }
     }
 
     /** Performs login for a user. */
     public boolean login(String email, String password) {
-        User user = userRepo.getByEmail(email);
-        // NOTE: This requires the checkPassword method in User.java
-        if (user != null && user.checkPassword(password)) {
+        User user = userRepo.authenticate(email, password);
+        if (user != null) {
             this.currentUser = user;
             return true;
         }
@@ -366,6 +704,10 @@ public class AppController {
             // Create and add the module
             Module module = new Module(code, name, lecHrs, labHrs, tutHrs, lecturerIds);
             moduleRepo.add(module);
+            if (journal != null) {
+                journal.moduleAdded(module);
+                syncJournal();
+            }
 
             cliView.displayMessage("Module " + code + " added successfully.");
 
@@ -394,6 +736,10 @@ public class AppController {
             Room.RoomType type = isLab ? Room.RoomType.LAB : Room.RoomType.CLASSROOM;
             Room room = new Room(roomId, capacity, type);
             roomRepo.add(room);
+            if (journal != null) {
+                journal.roomAdded(room);
+                syncJournal();
+            }
 
             cliView.displayMessage("Room " + roomId + " added successfully.");
 
@@ -12,7 +12,7 @@ public class Admin extends User {
      * @param name full name
      * @param email email address
      */
-    public Admin(String id, String name, String email,String password){
+    public Admin(String id, String name, String email, Password password){
         super(id, name, email,password);
     }
 
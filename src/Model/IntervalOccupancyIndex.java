@@ -0,0 +1,62 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Occupancy index holding, per day, the occupied intervals in a map sorted by start minute.
+ * Intervals never overlap, so they are ordered by end as well and a lookup only needs the latest
+ * interval starting before the end of the window. All operations are O(log n).
+ */
+class IntervalOccupancyIndex implements OccupancyIndex {
+
+    /** Start minute to end minute of every occupied interval, indexed by day (Monday is 0). */
+    private final List<TreeMap<Integer, Integer>> intervalsByDay = new ArrayList<>(7);
+
+    IntervalOccupancyIndex() {
+        for (int day = 0; day < 7; day++) {
+            intervalsByDay.add(new TreeMap<>());
+        }
+    }
+
+    @Override
+    public boolean isFree(int startMinute, int endMinute) {
+        Map.Entry<Integer, Integer> previous = day(startMinute).lowerEntry(endMinute);
+        return previous == null || previous.getValue() <= startMinute;
+    }
+
+    @Override
+    public void occupy(int startMinute, int endMinute) {
+        day(startMinute).put(startMinute, endMinute);
+    }
+
+    @Override
+    public void release(int startMinute, int endMinute) {
+        day(startMinute).remove(startMinute, endMinute);
+    }
+
+    @Override
+    public void addTo(long[] weekBits) {
+        for (TreeMap<Integer, Integer> intervals : intervalsByDay) {
+            for (Map.Entry<Integer, Integer> interval : intervals.entrySet()) {
+                WeekBitmap.set(weekBits, interval.getKey(), interval.getValue());
+            }
+        }
+    }
+
+    @Override
+    public OccupancyIndex copy() {
+        IntervalOccupancyIndex copy = new IntervalOccupancyIndex();
+        for (int day = 0; day < 7; day++) {
+            copy.intervalsByDay.get(day).putAll(intervalsByDay.get(day));
+        }
+        return copy;
+    }
+
+    /** The intervals of the day containing the given minute of the week. */
+    private TreeMap<Integer, Integer> day(int minuteOfWeek) {
+        return intervalsByDay.get(minuteOfWeek / Session.MINUTES_PER_DAY);
+    }
+}
@@ -22,7 +22,7 @@ public class Lecturer extends User {
      * @param name full name
      * @param email email address
      */
-    public Lecturer(String id, String name, String email,String password) {
+    public Lecturer(String id, String name, String email, Password password) {
         super(id, name, email,password);
         this.assignedModules = new ArrayList<>();
         this.timetable = new Timetable("Lecturer-" + id);
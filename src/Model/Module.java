@@ -11,6 +11,9 @@ public class Module {
     /** Code of the module (e.g. CS4013) */
     private String code;
 
+    /** Symbol of the code in {@link SymbolTable#MODULES} */
+    private final int symbol;
+
     /** Name of the module */
     private String name;
 
@@ -30,7 +33,8 @@ public class Module {
      * Constructor for Module.
      */
     public Module(String code, String name, int lectureHours, int labHours, int tutorialHours, List<String> lecturerIDs) {
-        this.code = code;
+        this.symbol = SymbolTable.MODULES.intern(code);
+        this.code = SymbolTable.MODULES.name(symbol);
         this.name = name;
         this.lectureHours = lectureHours;
         this.labHours = labHours;
@@ -46,6 +50,14 @@ public class Module {
         return code;
     }
 
+    /**
+     * returns the symbol of the Module code in {@link SymbolTable#MODULES}
+     *
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
     /**
      * returns Module name
      *
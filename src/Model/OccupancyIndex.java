@@ -0,0 +1,69 @@
+package Model;
+
+/**
+ * Records which minutes of the week are taken in a {@link Timetable}.
+ * Implementations only answer "is this window free" and never hold more than one
+ * session per minute, so they can be swapped without changing scheduling decisions.
+ * <p>
+ * The implementation is chosen per deployment with the {@code timetable.occupancy}
+ * system property: {@code interval} (default) or {@code bitmap}.
+ */
+public interface OccupancyIndex {
+
+    /** System property used to select the occupancy implementation. */
+    String PROPERTY = "timetable.occupancy";
+
+    /**
+     * Checks whether the half-open window [startMinute, endMinute) is unoccupied.
+     * Windows are given in minutes of the week (see {@link Session#minuteOfWeek}) and never span midnight.
+     *
+     * @param startMinute Start of the window in minutes of the week.
+     * @param endMinute End of the window in minutes of the week (exclusive).
+     * @return {@code true} if no occupied minute falls inside the window.
+     */
+    boolean isFree(int startMinute, int endMinute);
+
+    /**
+     * Marks the window [startMinute, endMinute) as occupied.
+     * Callers must check {@link #isFree} first.
+     */
+    void occupy(int startMinute, int endMinute);
+
+    /**
+     * Releases a window previously passed to {@link #occupy}.
+     */
+    void release(int startMinute, int endMinute);
+
+    /**
+     * Marks every occupied minute of this index in a week bitmap (see {@link WeekBitmap}),
+     * leaving bits that are already set untouched.
+     *
+     * @param weekBits A bitmap of {@link WeekBitmap#WORDS} words to OR this occupancy into.
+     */
+    void addTo(long[] weekBits);
+
+    /**
+     * Creates an independent copy of this index; later changes to either do not affect the other.
+     *
+     * @return A copy of the same implementation type.
+     */
+    OccupancyIndex copy();
+
+    /**
+     * Creates the occupancy implementation configured for this deployment.
+     *
+     * @return A new, empty occupancy index.
+     * @throws IllegalArgumentException if the configured implementation name is unknown.
+     */
+    static OccupancyIndex create() {
+        String type = System.getProperty(PROPERTY, "interval").trim().toLowerCase();
+        switch (type) {
+            case "interval":
+                return new IntervalOccupancyIndex();
+            case "bitmap":
+                return new BitmapOccupancyIndex();
+            default:
+                throw new IllegalArgumentException("Unknown " + PROPERTY + " '" + type + "' (expected interval or bitmap).");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package Model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * A user's stored password: either a {@link PasswordHash} hash, or plain text from a Users file written
+ * before passwords were hashed. Plain text is only held until it is hashed, in the background after the
+ * file is loaded or on the user's first successful login, whichever comes first, and is never saved.
+ * <p>
+ * Create one with {@link #hashed(String)} or {@link #plainText(String)}; the caller says which it has, so
+ * a new password is never mistaken for a hash because of how it looks.
+ */
+public final class Password {
+    private final String stored;
+    private final boolean hashed;
+
+    private Password(String stored, boolean hashed) {
+        this.stored = stored;
+        this.hashed = hashed;
+    }
+
+    /**
+     * Wraps a stored hash.
+     *
+     * @param hash a hash made by {@link PasswordHash#hash(String)}
+     * @return the password
+     * @throws IllegalArgumentException if {@code hash} is not such a hash
+     */
+    public static Password hashed(String hash) {
+        if (!PasswordHash.isHash(hash)) {
+            throw new IllegalArgumentException("Not a password hash");
+        }
+        return new Password(hash, true);
+    }
+
+    /**
+     * Wraps a password read in plain text, to be hashed with {@link User#hashPassword()}.
+     *
+     * @param plainText the password
+     * @return the password
+     */
+    public static Password plainText(String plainText) {
+        if (plainText == null) {
+            throw new IllegalArgumentException("Password is missing");
+        }
+        return new Password(plainText, false);
+    }
+
+    /**
+     * Checks whether this password is held as a hash.
+     *
+     * @return {@code false} if it is still plain text
+     */
+    public boolean isHashed() {
+        return hashed;
+    }
+
+    /**
+     * Gets the stored value: the hash, or the plain text if it has not been hashed yet.
+     *
+     * @return the stored value
+     */
+    public String getStored() {
+        return stored;
+    }
+
+    /**
+     * Checks a password as typed against this one: against the hash, or in constant time against the plain text.
+     *
+     * @param input the password as typed
+     * @return {@code true} if it matches
+     */
+    public boolean matches(String input) {
+        if (input == null) {
+            return false;
+        }
+        if (hashed) {
+            return PasswordHash.verify(input, stored);
+        }
+        return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), input.getBytes(StandardCharsets.UTF_8));
+    }
+}
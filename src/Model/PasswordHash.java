@@ -0,0 +1,92 @@
+package Model;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted, deliberately slow password hashes (PBKDF2 with HMAC-SHA256 from the JDK), so that a leaked
+ * Users file or snapshot does not reveal passwords.
+ * <p>
+ * A hash is stored as {@code pbkdf2-sha256:<iterations>:<salt>:<hash>}, salt and hash in Base64. It
+ * contains no commas, so it can be written to the CSV files as it is. The iteration count is stored with
+ * each hash, so {@link #ITERATIONS} can be raised later without breaking existing hashes.
+ */
+public final class PasswordHash {
+    /** PBKDF2 iterations for new hashes, as recommended by OWASP for HMAC-SHA256. */
+    public static final int ITERATIONS = 600_000;
+
+    private static final String PREFIX = "pbkdf2-sha256:";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHash() {
+    }
+
+    /**
+     * Hashes a password with a new random salt.
+     *
+     * @param password the password in plain text
+     * @return the stored form of the hash
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + ITERATIONS + ":" + base64.encodeToString(salt) + ":"
+                + base64.encodeToString(derive(password, salt, ITERATIONS));
+    }
+
+    /**
+     * Checks whether a stored password is already a hash made by {@link #hash(String)}, rather than
+     * plain text from before passwords were hashed.
+     *
+     * @param stored the stored password
+     * @return {@code true} if it is a hash
+     */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Checks a password against a stored hash. The hashes are compared in constant time.
+     *
+     * @param password the password as typed
+     * @param stored a hash made by {@link #hash(String)}
+     * @return {@code true} if the password matches; {@code false} if not, or if {@code stored} is not a valid hash
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || !isHash(stored)) {
+            return false;
+        }
+        String[] parts = stored.substring(PREFIX.length()).split(":");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            Base64.Decoder base64 = Base64.getDecoder();
+            byte[] expected = base64.decode(parts[2]);
+            byte[] actual = derive(password, base64.decode(parts[1]), Integer.parseInt(parts[0]));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -5,6 +5,7 @@ package Model;
  */
 public class Room {
     private final String id;
+    private final int symbol;
     private final int capacity;
     private final RoomType type;
     private final Timetable timetable;
@@ -26,7 +27,8 @@ public class Room {
      * @param type The type of room, defining its usage (e.g., CLASSROOM or LAB).
      */
     public Room(String id, int capacity, RoomType type) {
-        this.id = id;
+        this.symbol = SymbolTable.ROOMS.intern(id);
+        this.id = SymbolTable.ROOMS.name(symbol);
         this.capacity = capacity;
         this.type = type;
         this.timetable = new Timetable(id); // Timetable is owned by the Room's ID
@@ -41,6 +43,15 @@ public class Room {
         return id;
     }
 
+    /**
+     * Retrieves the symbol of the room's ID in {@link SymbolTable#ROOMS}.
+     *
+     * @return The room symbol.
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
     /**
      * Retrieves the maximum capacity of the room (the number of students it can hold).
      * @return The room's capacity (integer).
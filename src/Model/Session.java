@@ -2,22 +2,44 @@ package Model;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents a single instance of a scheduled class (e.g., Lecture, Lab, Tutorial).
  * It stores all relevant scheduling details and some logic for time overlap checking.
+ * <p>
+ * The start and end are also kept as packed minute-of-week ints (Monday 00:00 is 0), so overlap
+ * checks and sorting compare two primitives instead of dereferencing {@link LocalTime} objects.
+ * <p>
+ * The module, type, lecturer, room and groups are held as {@link SymbolTable} symbols rather than
+ * strings, so every session shares one copy of each ID and can be joined to its entities by array index.
  */
 public class Session {
     private String sessionID;
-    private String moduleCode;
-    private String sessionType;
-    private String lecturerID;
-    private String roomID;
-    private List<String> studentGroupIDs;
+    private final int moduleSymbol;
+    private final int typeSymbol;
+    private final int lecturerSymbol;
+    private final int roomSymbol;
+    private final int[] groupSymbols;
     private DayOfWeek day;
     private LocalTime startTime;
     private int sessionDuration;
+    private final int startMinuteOfWeek;
+    private final int endMinuteOfWeek;
+
+    /** Number of minutes in a day; a session must finish on the day it starts. */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** Number of minutes in a week; the exclusive upper bound of a minute-of-week value. */
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    /** Orders sessions by day and start time, then by end time. */
+    public static final Comparator<Session> CHRONOLOGICAL =
+            Comparator.comparingInt(Session::getStartMinuteOfWeek).thenComparingInt(Session::getEndMinuteOfWeek);
 
     /**
      * Constructs a scheduled Session, defining all its immutable properties.
@@ -31,17 +53,32 @@ public class Session {
      * @param day The day of the week the session occurs.
      * @param startTime The exact time the session begins.
      * @param sessionDuration The length of the session in minutes.
+     * @throws IllegalArgumentException if the duration is not positive or the session runs past midnight.
      */
     public Session(String sessionID, String moduleCode, String sessionType, String lecturerID, String roomID, List<String> studentGroupIDs, DayOfWeek day, LocalTime startTime, int sessionDuration) {
+        // Validate before interning, so a rejected session leaves nothing in the symbol tables
+        int start = minuteOfWeek(day, startTime);
+        if (sessionDuration <= 0) {
+            throw new IllegalArgumentException("Session duration must be positive: " + sessionDuration);
+        }
+        if (start % MINUTES_PER_DAY + sessionDuration > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Session " + sessionID + " runs past midnight.");
+        }
+
         this.sessionID = sessionID;
-        this.moduleCode = moduleCode;
-        this.sessionType = sessionType;
-        this.lecturerID = lecturerID;
-        this.roomID = roomID;
-        this.studentGroupIDs = studentGroupIDs;
+        this.moduleSymbol = SymbolTable.MODULES.intern(moduleCode);
+        this.typeSymbol = SymbolTable.SESSION_TYPES.intern(sessionType);
+        this.lecturerSymbol = SymbolTable.USERS.intern(lecturerID);
+        this.roomSymbol = SymbolTable.ROOMS.intern(roomID);
+        this.groupSymbols = new int[studentGroupIDs.size()];
+        for (int i = 0; i < groupSymbols.length; i++) {
+            groupSymbols[i] = SymbolTable.GROUPS.intern(studentGroupIDs.get(i));
+        }
         this.day = day;
         this.startTime = startTime;
         this.sessionDuration = sessionDuration;
+        this.startMinuteOfWeek = start;
+        this.endMinuteOfWeek = start + sessionDuration;
     }
 
     /**
@@ -59,7 +96,16 @@ public class Session {
      * @return The module code string.
      */
     public String getModuleCode() {
-        return moduleCode;
+        return SymbolTable.MODULES.name(moduleSymbol);
+    }
+
+    /**
+     * Gets the symbol of the module in {@link SymbolTable#MODULES}.
+     *
+     * @return The module symbol.
+     */
+    public int getModuleSymbol() {
+        return moduleSymbol;
     }
 
     /**
@@ -68,7 +114,16 @@ public class Session {
      * @return The session type string.
      */
     public String getSessionType() {
-        return sessionType;
+        return SymbolTable.SESSION_TYPES.name(typeSymbol);
+    }
+
+    /**
+     * Gets the symbol of the session type in {@link SymbolTable#SESSION_TYPES}.
+     *
+     * @return The type symbol.
+     */
+    public int getTypeSymbol() {
+        return typeSymbol;
     }
 
 
@@ -79,7 +134,16 @@ public class Session {
      * @return The lecturer ID string.
      */
     public String getLecturerID() {
-        return lecturerID;
+        return SymbolTable.USERS.name(lecturerSymbol);
+    }
+
+    /**
+     * Gets the symbol of the lecturer in {@link SymbolTable#USERS}.
+     *
+     * @return The lecturer symbol.
+     */
+    public int getLecturerSymbol() {
+        return lecturerSymbol;
     }
 
     /**
@@ -88,16 +152,34 @@ public class Session {
      * @return The room ID string.
      */
     public String getRoomID() {
-        return roomID;
+        return SymbolTable.ROOMS.name(roomSymbol);
+    }
+
+    /**
+     * Gets the symbol of the room in {@link SymbolTable#ROOMS}.
+     *
+     * @return The room symbol.
+     */
+    public int getRoomSymbol() {
+        return roomSymbol;
     }
 
     /**
      * Gets the list of student group IDs attending this session.
      *
-     * @return The list of student group IDs.
+     * @return An unmodifiable list of the student group IDs, in the order given.
      */
     public List<String> getStudentGroupIDs() {
-        return studentGroupIDs;
+        return new GroupIDs();
+    }
+
+    /**
+     * Gets the symbols of the student groups in {@link SymbolTable#GROUPS}, in the order given.
+     *
+     * @return The group symbols; the array is shared and must not be modified.
+     */
+    public int[] getStudentGroupSymbols() {
+        return groupSymbols;
     }
 
     /**
@@ -127,6 +209,61 @@ public class Session {
         return sessionDuration;
     }
 
+    /**
+     * Gets the end time of the session.
+     *
+     * @return The {@link LocalTime} the session finishes at.
+     */
+    public LocalTime getEndTime() {
+        return startTime.plusMinutes(sessionDuration);
+    }
+
+    /**
+     * Gets the start of the session as minutes since Monday 00:00.
+     *
+     * @return The packed start minute-of-week.
+     */
+    public int getStartMinuteOfWeek() {
+        return startMinuteOfWeek;
+    }
+
+    /**
+     * Gets the end of the session (exclusive) as minutes since Monday 00:00.
+     *
+     * @return The packed end minute-of-week.
+     */
+    public int getEndMinuteOfWeek() {
+        return endMinuteOfWeek;
+    }
+
+    /**
+     * Packs a day and time of day into minutes since Monday 00:00.
+     *
+     * @param day The day of the week.
+     * @param time The time of day (seconds are ignored).
+     * @return The minute-of-week value.
+     */
+    public static int minuteOfWeek(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Checks whether another session object describes this same session: the same ID, module, type,
+     * lecturer, room, groups and time. Used instead of {@code ==} where a repository may hand out copies.
+     *
+     * @param other The session to compare with, may be {@code null}.
+     * @return {@code true} if every field matches.
+     */
+    public boolean sameAs(Session other) {
+        if (other == this) {
+            return true;
+        }
+        return other != null && sessionID.equals(other.sessionID) && moduleSymbol == other.moduleSymbol
+                && typeSymbol == other.typeSymbol && lecturerSymbol == other.lecturerSymbol
+                && roomSymbol == other.roomSymbol && Arrays.equals(groupSymbols, other.groupSymbols)
+                && startTime.equals(other.startTime) && day == other.day && sessionDuration == other.sessionDuration;
+    }
+
     /**
      * Checks if this session temporally overlaps with another session.
      * Assumes sessions are on half-open intervals [start, end).
@@ -135,20 +272,19 @@ public class Session {
      * @return true if the sessions are on the same day and their time ranges intersect, {@code false} otherwise.
      */
     public boolean overLapsWith(Session other) {
-        if (!this.day.equals(other.day)) {
-            return false;
-        }
-
-        LocalTime thisEndTime = this.startTime.plusMinutes(this.sessionDuration);
-        LocalTime otherEndTime = other.startTime.plusMinutes(other.sessionDuration);
+        return this.startMinuteOfWeek < other.endMinuteOfWeek && other.startMinuteOfWeek < this.endMinuteOfWeek;
+    }
 
-        if (thisEndTime.isBefore(other.startTime) || thisEndTime.equals(this.startTime)) {
-            return false;
+    /** A read-only view of the group IDs, resolved from their symbols on access. */
+    private class GroupIDs extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) {
+            return SymbolTable.GROUPS.name(groupSymbols[index]);
         }
 
-        if (otherEndTime.isBefore((this.startTime)) || otherEndTime.equals(this.startTime)) {
-            return false;
+        @Override
+        public int size() {
+            return groupSymbols.length;
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -20,10 +20,10 @@ public class Student extends User {
      * @param id unique identifier
      * @param name full name
      * @param email email address
-     * @param password login password
+     * @param password the stored password, hashed or still in plain text
      * @param studentGroup the group the student is part of
      */
-    public Student(String id, String name, String email, String password, StudentGroup studentGroup) {
+    public Student(String id, String name, String email, Password password, StudentGroup studentGroup) {
         super(id, name, email, password);
         this.studentGroup = studentGroup;
         this.timetable = new Timetable("Student-" + id);
@@ -12,6 +12,9 @@ public class StudentGroup {
     /** Unique identifier for the group (e.g., "CS1A"). */
     private String groupId;
 
+    /** Symbol of the group ID in {@link SymbolTable#GROUPS}. */
+    private final int symbol;
+
     /** Code of the programme this group belongs to. */
     private String programmeCode;
 
@@ -28,7 +31,8 @@ public class StudentGroup {
     private Timetable timetable;
 
     public StudentGroup(String groupId, String programmeCode, int year, List<String> studentIds) {
-        this.groupId = groupId;
+        this.symbol = SymbolTable.GROUPS.intern(groupId);
+        this.groupId = SymbolTable.GROUPS.name(symbol);
         this.programmeCode = programmeCode;
         this.year = year;
         this.studentIds = studentIds;
@@ -40,6 +44,11 @@ public class StudentGroup {
         return groupId;
     }
 
+    /** Returns the symbol of the group ID in {@link SymbolTable#GROUPS}. */
+    public int getSymbol() {
+        return symbol;
+    }
+
     public Timetable getTimetable() {
         return timetable;
     }
@@ -0,0 +1,86 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the IDs of one kind of entity to dense ints (0, 1, 2, ...) and back. Each distinct ID is stored
+ * once, however many sessions refer to it, and an entity can be found by indexing an array with its
+ * symbol instead of hashing its ID.
+ * <p>
+ * Symbols are handed out in first-seen order and never reused; a symbol stays valid for the life of the
+ * JVM even if its entity is removed. Interning is thread-safe, and {@link #name(int)} never locks.
+ */
+public final class SymbolTable {
+    /** Module codes. */
+    public static final SymbolTable MODULES = new SymbolTable();
+    /** User IDs, which include lecturer IDs. */
+    public static final SymbolTable USERS = new SymbolTable();
+    /** Room IDs. */
+    public static final SymbolTable ROOMS = new SymbolTable();
+    /** Student group IDs. */
+    public static final SymbolTable GROUPS = new SymbolTable();
+    /** Session types such as "Lecture" and "Lab". */
+    public static final SymbolTable SESSION_TYPES = new SymbolTable();
+
+    private final Map<String, Integer> symbols = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64]; // Replaced, never written after it is outgrown
+    private int size; // Guarded by this
+
+    /**
+     * Gets the symbol of an ID, assigning the next one if the ID is new.
+     *
+     * @param name the ID
+     * @return its symbol
+     */
+    public int intern(String name) {
+        Integer symbol = symbols.get(name);
+        return symbol != null ? symbol : add(name);
+    }
+
+    /**
+     * Gets the symbol of an ID without assigning one.
+     *
+     * @param name the ID
+     * @return its symbol, or -1 if it has never been interned
+     */
+    public int find(String name) {
+        Integer symbol = symbols.get(name);
+        return symbol != null ? symbol : -1;
+    }
+
+    /**
+     * Gets the ID a symbol stands for.
+     *
+     * @param symbol a symbol returned by {@link #intern(String)}
+     * @return the ID, as the single copy kept by this table
+     */
+    public String name(int symbol) {
+        return names[symbol];
+    }
+
+    /**
+     * Gets the number of symbols assigned so far; every symbol is below it.
+     *
+     * @return the symbol count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String name) {
+        Integer existing = symbols.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = name;
+        names = current; // Publishes the name before the symbol can be seen below
+        symbols.put(name, size);
+        return size++;
+    }
+}
@@ -1,15 +1,26 @@
 package Model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Represents the schedule for a single owner, such as a Lecturer, Room, or StudentGroup.
  * It manages a collection of sessions and is responsible for checking and preventing time conflicts.
+ * <p>
+ * Conflict checks are answered by an {@link OccupancyIndex}, whose implementation is selected
+ * per deployment (sorted per-day intervals or a minute bitmap) and gives the same decisions either way.
+ * Sessions are also kept sorted by start time, which orders them by end time too, for listing and for
+ * finding the sessions behind a conflict.
+ * Every method is synchronized, so a timetable can be read while another thread schedules into it.
  */
 public class Timetable {
     private String ownerID;
-    private List<Session> schedulesSessions;
+    private Map<String, Session> sessionsById;
+    private TreeMap<Integer, Session> sessionsByStart;
+    private OccupancyIndex occupancy;
 
     /**
      * Constructs a new Timetable instance for a specific entity.
@@ -18,7 +29,9 @@ public class Timetable {
      */
     public Timetable(String ownerID) {
         this.ownerID = ownerID;
-        this.schedulesSessions = new ArrayList<>();
+        this.sessionsById = new HashMap<>();
+        this.sessionsByStart = new TreeMap<>();
+        this.occupancy = OccupancyIndex.create();
     }
 
     /**
@@ -33,10 +46,10 @@ public class Timetable {
     /**
      * Provides a list of all sessions currently scheduled in this timetable.
      *
-     * @return A copy of the list of {@link Session} objects representing the schedule.
+     * @return A copy of the list of {@link Session} objects representing the schedule, ordered by day and start time.
      */
-    public List<Session> getSchedulesSessions() {
-        return new ArrayList<>(schedulesSessions);
+    public synchronized List<Session> getSchedulesSessions() {
+        return new ArrayList<>(sessionsByStart.values());
     }
 
     /**
@@ -44,13 +57,15 @@ public class Timetable {
      * Checks for time conflicts before adding
      *
      * @param newSession The session to be scheduled.
-     * @return {@code true} if the session was successfully added (no conflict), {@code false} otherwise.
+     * @return {@code true} if the session was successfully added (no conflict or duplicate ID), {@code false} otherwise.
      */
-    public boolean addSession(Session newSession) {
-        if (checkConflict(newSession)) {
+    public synchronized boolean addSession(Session newSession) {
+        if (sessionsById.containsKey(newSession.getSessionID()) || checkConflict(newSession)) {
             return false;
         }
-        schedulesSessions.add(newSession);
+        occupancy.occupy(newSession.getStartMinuteOfWeek(), newSession.getEndMinuteOfWeek());
+        sessionsById.put(newSession.getSessionID(), newSession);
+        sessionsByStart.put(newSession.getStartMinuteOfWeek(), newSession);
         return true;
     }
 
@@ -59,14 +74,13 @@ public class Timetable {
      *
      * @param sessionId The unique ID of the session to remove
      */
-    public void removeSession(String sessionId) {
-        for (int i = 0; i < schedulesSessions.size(); i++) {
-            Session existingSession = schedulesSessions.get(i);
-            if (existingSession.getSessionID().equals(sessionId)) {
-                schedulesSessions.remove(i);
-                return;
-            }
+    public synchronized void removeSession(String sessionId) {
+        Session existingSession = sessionsById.remove(sessionId);
+        if (existingSession == null) {
+            return;
         }
+        sessionsByStart.remove(existingSession.getStartMinuteOfWeek());
+        occupancy.release(existingSession.getStartMinuteOfWeek(), existingSession.getEndMinuteOfWeek());
     }
 
     /**
@@ -75,28 +89,97 @@ public class Timetable {
      * @param newSession The session to check for potential conflicts.
      * @return {@code true} if a time conflict is detected, {@code false} otherwise.
      */
-    public boolean checkConflict(Session newSession) {
-        for (int i = 0; i < schedulesSessions.size(); i++) {
-            Session existingSession = schedulesSessions.get(i);
-            if (newSession.overLapsWith(existingSession)) {
-                return true;
-            }
+    public synchronized boolean checkConflict(Session newSession) {
+        return !occupancy.isFree(newSession.getStartMinuteOfWeek(), newSession.getEndMinuteOfWeek());
+    }
+
+    /**
+     * Checks whether a window of the week is free of sessions.
+     *
+     * @param startMinute Start of the window in minutes of the week (see {@link Session#minuteOfWeek}).
+     * @param endMinute End of the window in minutes of the week (exclusive).
+     * @return {@code true} if no scheduled session overlaps the window.
+     */
+    public synchronized boolean isFree(int startMinute, int endMinute) {
+        return occupancy.isFree(startMinute, endMinute);
+    }
+
+    /**
+     * Finds every scheduled session overlapping a window of the week. Sessions never overlap each
+     * other, so only the session starting at or before the window and those starting inside it are visited.
+     *
+     * @param startMinute Start of the window in minutes of the week.
+     * @param endMinute End of the window in minutes of the week (exclusive).
+     * @return The overlapping sessions in chronological order, empty if the window is free.
+     */
+    public synchronized List<Session> findConflicts(int startMinute, int endMinute) {
+        List<Session> conflicts = new ArrayList<>();
+        if (occupancy.isFree(startMinute, endMinute)) {
+            return conflicts;
         }
-        return false;
+        Map.Entry<Integer, Session> before = sessionsByStart.floorEntry(startMinute);
+        if (before != null && before.getValue().getEndMinuteOfWeek() > startMinute) {
+            conflicts.add(before.getValue());
+        }
+        conflicts.addAll(sessionsByStart.subMap(startMinute, false, endMinute, false).values());
+        return conflicts;
+    }
+
+    /**
+     * Marks every minute taken by this timetable's sessions in a week bitmap, so the occupancy of
+     * several timetables can be combined with one OR per timetable.
+     *
+     * @param weekBits A bitmap from {@link WeekBitmap#create()}.
+     */
+    public synchronized void addOccupancyTo(long[] weekBits) {
+        occupancy.addTo(weekBits);
     }
+
+    /**
+     * Copies the current occupancy of this timetable, e.g. to plan against it without holding its lock.
+     *
+     * @return An independent {@link OccupancyIndex} holding every scheduled session.
+     */
+    public synchronized OccupancyIndex copyOccupancy() {
+        return occupancy.copy();
+    }
+
+    /**
+     * Creates an independent copy of this timetable with the same owner and sessions.
+     * The sessions themselves are shared, as they are never modified.
+     *
+     * @return A new timetable that can be changed without affecting this one.
+     */
+    public synchronized Timetable copy() {
+        Timetable copy = new Timetable(ownerID);
+        copy.sessionsById.putAll(sessionsById);
+        copy.sessionsByStart.putAll(sessionsByStart);
+        copy.occupancy = occupancy.copy();
+        return copy;
+    }
+
+    /**
+     * Gets the number of sessions in this timetable.
+     *
+     * @return The session count.
+     */
+    public synchronized int size() {
+        return sessionsById.size();
+    }
+
     /** t checks if the timetable has any scheduled sessions.
 
      If empty, it returns the simple message: "No sessions scheduled."*/
     @Override
-    public String toString() {
-        if (schedulesSessions.isEmpty()) {
+    public synchronized String toString() {
+        if (sessionsById.isEmpty()) {
             return "No sessions scheduled.";
         }
 
         StringBuilder sb = new StringBuilder();
         sb.append("Timetable for ").append(ownerID).append(":\n");
 
-        for (Session s : schedulesSessions) {
+        for (Session s : getSchedulesSessions()) {
             sb.append("- ")
                     .append(s.getDay())
                     .append(" at ").append(s.getStartTime())
@@ -108,4 +191,4 @@ public class Timetable {
 
         return sb.toString();
     }
-}
\ No newline at end of file
+}
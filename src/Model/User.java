@@ -8,14 +8,17 @@ public abstract class User {
     /** Unique identifier for the user. */
     protected String id;
 
+    /** Symbol of the identifier in {@link SymbolTable#USERS}. */
+    protected final int symbol;
+
     /** Full name of the user. */
     protected String name;
 
     /** Email address of the user. */
     protected String email;
 
-    /** Password of the user. */
-    protected String password;
+    /** Password of the user; a plain-text password is replaced by its hash soon after it is loaded. */
+    protected volatile Password password;
 
     /**
      * Constructor for creating a user.
@@ -23,9 +26,11 @@ public abstract class User {
      * @param id unique identifier
      * @param name full name
      * @param email email address
+     * @param password the stored password, hashed or still in plain text
      */
-    public User(String id, String name, String email, String password) {
-        this.id = id;
+    public User(String id, String name, String email, Password password) {
+        this.symbol = SymbolTable.USERS.intern(id);
+        this.id = SymbolTable.USERS.name(symbol);
         this.name = name;
         this.email = email;
         this.password = password;
@@ -37,6 +42,10 @@ public abstract class User {
         return id;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     public String getName() {
         return name;
     }
@@ -45,10 +54,52 @@ public abstract class User {
         return email;
     }
 
-    public String getPassword() {return password;}
+    /** Returns the stored password, for saving. */
+    public Password getPassword() {return password;}
 
+    /**
+     * Checks a password against this user's. Checking a hash is deliberately slow; see
+     * {@code UserRepository.authenticate} for logins. A password still in plain text is checked just as
+     * slowly, and if it matches it is replaced by its hash without waiting for {@link #hashPassword()}.
+     *
+     * @param input the password as typed
+     * @return {@code true} if it is this user's password
+     */
     public boolean checkPassword(String input) {
-        return this.password.equals(input);
+        Password current = this.password;
+        if (current.isHashed()) {
+            return current.matches(input);
+        }
+        // Hash the input whether or not it matches, so a plain-text password takes as long to check as a
+        // hash and the time taken does not tell which emails have accounts
+        Password hashed = Password.hashed(PasswordHash.hash(input == null ? "" : input));
+        if (!current.matches(input)) {
+            return false;
+        }
+        replacePassword(current, hashed);
+        return true;
+    }
+
+    /**
+     * Replaces a password still held in plain text by its hash. As slow as checking a hash.
+     *
+     * @return {@code true} if the password was in plain text and this call replaced it
+     */
+    public boolean hashPassword() {
+        Password current = this.password;
+        if (current.isHashed()) {
+            return false;
+        }
+        return replacePassword(current, Password.hashed(PasswordHash.hash(current.getStored())));
+    }
+
+    /** Replaces the password unless another thread replaced it since {@code expected} was read. */
+    private synchronized boolean replacePassword(Password expected, Password replacement) {
+        if (password != expected) {
+            return false;
+        }
+        password = replacement;
+        return true;
     }
 
     public abstract String getRole();
@@ -0,0 +1,78 @@
+package Model;
+
+/**
+ * Static helpers for a week of one-minute slots packed into a {@code long[]}, one bit per minute.
+ * Ranges are half-open minute-of-week windows [start, end), as used by {@link OccupancyIndex}.
+ * None of the operations allocate.
+ */
+public final class WeekBitmap {
+
+    /** Number of words needed to hold one bit per minute of the week. */
+    public static final int WORDS = (Session.MINUTES_PER_WEEK + 63) / 64;
+
+    private WeekBitmap() {
+    }
+
+    /**
+     * Creates an empty week bitmap.
+     *
+     * @return A new array of {@link #WORDS} zero words.
+     */
+    public static long[] create() {
+        return new long[WORDS];
+    }
+
+    /**
+     * Checks that no minute in [start, end) is set.
+     *
+     * @return {@code true} if every bit of the range is clear.
+     */
+    public static boolean isClear(long[] bits, int start, int end) {
+        int last = end - 1;
+        int fromWord = start >>> 6;
+        int toWord = last >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            if ((bits[w] & mask(w, fromWord, toWord, start, last)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Sets every minute in [start, end). */
+    public static void set(long[] bits, int start, int end) {
+        int last = end - 1;
+        int fromWord = start >>> 6;
+        int toWord = last >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            bits[w] |= mask(w, fromWord, toWord, start, last);
+        }
+    }
+
+    /** Clears every minute in [start, end). */
+    public static void clear(long[] bits, int start, int end) {
+        int last = end - 1;
+        int fromWord = start >>> 6;
+        int toWord = last >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            bits[w] &= ~mask(w, fromWord, toWord, start, last);
+        }
+    }
+
+    /** Checks whether a single minute is set. */
+    public static boolean isSet(long[] bits, int minute) {
+        return (bits[minute >>> 6] & (1L << (minute & 63))) != 0;
+    }
+
+    /** Bits of word {@code w} covered by the inclusive minute range [first, last]. */
+    private static long mask(int w, int fromWord, int toWord, int first, int last) {
+        long mask = -1L;
+        if (w == fromWord) {
+            mask &= -1L << (first & 63);
+        }
+        if (w == toWord) {
+            mask &= -1L >>> (63 - (last & 63));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,45 @@
+package Repositories;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells a repository whether it has changed since it was last saved. Each change is counted; a save
+ * records the count it started from, so a change made while the save is running still leaves the
+ * repository dirty.
+ */
+final class ChangeTracker {
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long saved = -1; // Nothing saved yet
+
+    /** Records a change to the repository. */
+    void changed() {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Gets the current change count, to be passed to {@link #saved(long)} once the save it starts has succeeded.
+     *
+     * @return the number of changes so far
+     */
+    long current() {
+        return changes.get();
+    }
+
+    /**
+     * Records that a save containing every change up to a count has been written.
+     *
+     * @param count the value {@link #current()} returned before the save started
+     */
+    void saved(long count) {
+        saved = count;
+    }
+
+    /**
+     * Checks whether there are changes that have not been saved.
+     *
+     * @return {@code true} if the repository has never been saved or has changed since
+     */
+    boolean isDirty() {
+        return saved != changes.get();
+    }
+}
@@ -0,0 +1,273 @@
+package Repositories;
+
+import Model.Session;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps sessions as parallel primitive columns, one row per session in the order they were added.
+ * Module, type, lecturer and room are {@link Model.SymbolTable} symbols; the groups of every row are
+ * concatenated into one array, with {@code groupOffsets[row]} to {@code groupOffsets[row + 1]} marking
+ * each row's share (compressed sparse rows). A scan therefore reads a handful of arrays front to back.
+ * <p>
+ * The session objects are kept in a column of their own so {@link #get} returns the very object that
+ * was added, as the scheduling code and the timetables rely on. A removed row is blanked and skipped;
+ * once more than half the rows are blank the columns are compacted.
+ * Reads share a lock; adds and removes take it exclusively.
+ */
+class ColumnarSessionStore implements SessionStore {
+    /** Blank rows tolerated before compacting, however few live rows there are. */
+    private static final int MIN_BLANK_ROWS_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> rows = new HashMap<>();
+
+    private int rowCount; // Rows in use, including blank ones
+    private int liveCount;
+    private String[] ids = new String[64]; // null for a blank row
+    private Session[] objects = new Session[64];
+    private int[] modules = new int[64];
+    private int[] types = new int[64];
+    private int[] lecturers = new int[64];
+    private int[] rooms = new int[64];
+    private byte[] days = new byte[64];
+    private long[] startNanos = new long[64]; // Start time as nano of day
+    private int[] durations = new int[64];
+    private int[] groupOffsets = new int[65];
+    private int[] groups = new int[128];
+
+    @Override
+    public void add(Session session) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rows.get(session.getSessionID());
+            if (existing != null) {
+                blank(existing);
+            }
+            int[] sessionGroups = session.getStudentGroupSymbols();
+            ensureCapacity(rowCount + 1, groupOffsets[rowCount] + sessionGroups.length);
+
+            int row = rowCount++;
+            ids[row] = session.getSessionID();
+            objects[row] = session;
+            modules[row] = session.getModuleSymbol();
+            types[row] = session.getTypeSymbol();
+            lecturers[row] = session.getLecturerSymbol();
+            rooms[row] = session.getRoomSymbol();
+            days[row] = (byte) session.getDay().getValue();
+            startNanos[row] = session.getStartTime().toNanoOfDay();
+            durations[row] = session.getSessionDuration();
+            System.arraycopy(sessionGroups, 0, groups, groupOffsets[row], sessionGroups.length);
+            groupOffsets[row + 1] = groupOffsets[row] + sessionGroups.length;
+
+            rows.put(session.getSessionID(), row);
+            liveCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Session get(String sessionID) {
+        lock.readLock().lock();
+        try {
+            Integer row = rows.get(sessionID);
+            return row != null ? objects[row] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String sessionID) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rows.get(sessionID);
+            if (row == null) {
+                return false;
+            }
+            blank(row);
+            int blankCount = rowCount - liveCount;
+            if (blankCount > MIN_BLANK_ROWS_TO_COMPACT && blankCount > liveCount) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Session> all() {
+        lock.readLock().lock();
+        try {
+            List<Session> all = new ArrayList<>(liveCount);
+            for (int row = 0; row < rowCount; row++) {
+                if (objects[row] != null) {
+                    all.add(objects[row]);
+                }
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void scan(Consumer<SessionCursor> visitor) {
+        lock.readLock().lock();
+        try {
+            RowCursor cursor = new RowCursor();
+            for (int row = 0; row < rowCount; row++) {
+                if (ids[row] != null) {
+                    cursor.row = row;
+                    visitor.accept(cursor);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Removes a row from the index and blanks it; the caller holds the write lock. */
+    private void blank(int row) {
+        rows.remove(ids[row]);
+        ids[row] = null;
+        objects[row] = null;
+        liveCount--;
+    }
+
+    /** Moves the live rows down over the blank ones, keeping their order; the caller holds the write lock. */
+    private void compact() {
+        int to = 0;
+        int groupsTo = 0;
+        for (int from = 0; from < rowCount; from++) {
+            if (ids[from] == null) {
+                continue;
+            }
+            int groupsFrom = groupOffsets[from];
+            int groupCount = groupOffsets[from + 1] - groupsFrom;
+            ids[to] = ids[from];
+            objects[to] = objects[from];
+            modules[to] = modules[from];
+            types[to] = types[from];
+            lecturers[to] = lecturers[from];
+            rooms[to] = rooms[from];
+            days[to] = days[from];
+            startNanos[to] = startNanos[from];
+            durations[to] = durations[from];
+            System.arraycopy(groups, groupsFrom, groups, groupsTo, groupCount);
+            groupOffsets[to] = groupsTo;
+            groupsTo += groupCount;
+            rows.put(ids[to], to);
+            to++;
+        }
+        groupOffsets[to] = groupsTo;
+        Arrays.fill(ids, to, rowCount, null);
+        Arrays.fill(objects, to, rowCount, null);
+        rowCount = to;
+    }
+
+    /** Grows the columns to hold at least the given number of rows and group entries. */
+    private void ensureCapacity(int rowsNeeded, int groupsNeeded) {
+        if (rowsNeeded > ids.length) {
+            int capacity = Math.max(rowsNeeded, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+            modules = Arrays.copyOf(modules, capacity);
+            types = Arrays.copyOf(types, capacity);
+            lecturers = Arrays.copyOf(lecturers, capacity);
+            rooms = Arrays.copyOf(rooms, capacity);
+            days = Arrays.copyOf(days, capacity);
+            startNanos = Arrays.copyOf(startNanos, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            groupOffsets = Arrays.copyOf(groupOffsets, capacity + 1);
+        }
+        if (groupsNeeded > groups.length) {
+            groups = Arrays.copyOf(groups, Math.max(groupsNeeded, groups.length * 2));
+        }
+    }
+
+    /** Reads one row of the columns after another. */
+    private class RowCursor implements SessionCursor {
+        int row;
+
+        @Override
+        public String getSessionID() {
+            return ids[row];
+        }
+
+        @Override
+        public int getModuleSymbol() {
+            return modules[row];
+        }
+
+        @Override
+        public int getTypeSymbol() {
+            return types[row];
+        }
+
+        @Override
+        public int getLecturerSymbol() {
+            return lecturers[row];
+        }
+
+        @Override
+        public int getRoomSymbol() {
+            return rooms[row];
+        }
+
+        @Override
+        public int getGroupCount() {
+            return groupOffsets[row + 1] - groupOffsets[row];
+        }
+
+        @Override
+        public int getGroupSymbol(int index) {
+            return groups[groupOffsets[row] + index];
+        }
+
+        @Override
+        public DayOfWeek getDay() {
+            return DayOfWeek.of(days[row]);
+        }
+
+        @Override
+        public LocalTime getStartTime() {
+            return LocalTime.ofNanoOfDay(startNanos[row]);
+        }
+
+        @Override
+        public int getStartMinuteOfWeek() {
+            return (days[row] - 1) * Session.MINUTES_PER_DAY + (int) (startNanos[row] / 60_000_000_000L);
+        }
+
+        @Override
+        public int getDuration() {
+            return durations[row];
+        }
+
+        @Override
+        public Session getSession() {
+            return objects[row];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package Repositories;
+
+import Model.Password;
+import Model.User;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers recent successful logins, so a user who logs in again soon after does not pay for another
+ * slow password hash. Holds at most {@link #MAX_ENTRIES} users, dropping the least recently used, and
+ * forgets a login {@link #TTL_MILLIS} after it was verified, however often it is used.
+ * <p>
+ * The password itself is not kept: each entry holds a SHA-256 digest of the password keyed with random
+ * bytes that exist only in this process, together with the stored password it was verified against, so
+ * an entry no longer matches once the user's stored password is replaced.
+ */
+final class CredentialCache {
+    /** Most users remembered at once. */
+    static final int MAX_ENTRIES = 65_536;
+    /** How long a verified login is remembered. */
+    static final long TTL_MILLIS = 15 * 60 * 1000L;
+
+    private final byte[] key = new byte[32];
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    CredentialCache() {
+        new SecureRandom().nextBytes(key);
+    }
+
+    /**
+     * Checks whether a user recently logged in with a password.
+     *
+     * @param user the user
+     * @param password the password as typed
+     * @return {@code true} if the password was verified for the user's current password within the last {@link #TTL_MILLIS}
+     */
+    boolean isVerified(User user, String password) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(user.getId());
+        }
+        if (entry == null || entry.password != user.getPassword()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - entry.verifiedAt > TTL_MILLIS) {
+            synchronized (entries) {
+                entries.remove(user.getId(), entry);
+            }
+            return false;
+        }
+        return MessageDigest.isEqual(entry.digest, digest(password));
+    }
+
+    /**
+     * Remembers that a password was verified for a user.
+     *
+     * @param user the user
+     * @param password the password that matched the user's stored password
+     */
+    void verified(User user, String password) {
+        Entry entry = new Entry(user.getPassword(), digest(password), System.currentTimeMillis());
+        synchronized (entries) {
+            entries.put(user.getId(), entry);
+        }
+    }
+
+    private byte[] digest(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(key);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final Password password;
+        final byte[] digest;
+        final long verifiedAt;
+
+        Entry(Password password, byte[] digest, long verifiedAt) {
+            this.password = password;
+            this.digest = digest;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package Repositories;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads comma-separated records straight out of a byte buffer, shared by every repository's loader.
+ * <p>
+ * Each record is scanned once to find where its fields start and end; the fields themselves are not
+ * copied. Numbers, times and enum names are parsed directly from those bytes, so the only objects made
+ * per record are the strings the caller asks for. Fields are trimmed of surrounding spaces and tabs.
+ * A field in double quotes may contain commas, line breaks and doubled quotes ({@code ""}), and is not
+ * trimmed inside the quotes. Records end at LF or CRLF, and text is UTF-8.
+ * <p>
+ * A reader is not thread-safe, but any number of readers may share one buffer through
+ * {@link ByteBuffer#slice()} or {@link ByteBuffer#duplicate()}, as only absolute reads are used.
+ */
+public final class CsvReader {
+    private final ByteBuffer buffer;
+    private int position;
+
+    // Bounds of the current record's fields, already trimmed
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Creates a reader over the remaining bytes of a buffer. A leading UTF-8 byte order mark is skipped.
+     *
+     * @param buffer the CSV text; its position and limit are not changed by reading
+     */
+    public CsvReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        if (buffer.limit() - position >= 3 && buffer.get(position) == (byte) 0xEF
+                && buffer.get(position + 1) == (byte) 0xBB && buffer.get(position + 2) == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+
+    /**
+     * Opens a CSV resource from the classpath. A resource that is a plain file is memory-mapped;
+     * one inside an archive is read into a single heap buffer.
+     *
+     * @param path the resource path, e.g. {@code "Resources/Rooms.csv"}
+     * @return a reader positioned at the first record
+     * @throws IOException if the resource does not exist or cannot be read
+     */
+    public static CsvReader openResource(String path) throws IOException {
+        URL url = CsvReader.class.getClassLoader().getResource(path);
+        if (url == null) {
+            throw new FileNotFoundException(path + " not found on the classpath");
+        }
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                return new CsvReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (URISyntaxException e) {
+                // Not a valid file URI after all; fall back to reading the stream
+            }
+        }
+        try (InputStream is = url.openStream()) {
+            return new CsvReader(ByteBuffer.wrap(is.readAllBytes()));
+        }
+    }
+
+    /**
+     * Finds where the last complete record in a buffer ends, so a stream can be cut into chunks that
+     * are parsed independently. Line feeds inside quoted fields do not end a record.
+     *
+     * @param buffer bytes that start at a record boundary; only absolute reads are used
+     * @return the index just past the last line feed that ends a record, or the buffer's position if there is none
+     */
+    public static int lastRecordEnd(ByteBuffer buffer) {
+        int end = buffer.position();
+        boolean quoted = false;
+        for (int pos = buffer.position(), limit = buffer.limit(); pos < limit; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                end = pos + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Advances to the next record. A blank line is a record with one empty field.
+     *
+     * @return {@code false} once the end of the buffer has been reached
+     */
+    public boolean nextRecord() {
+        int limit = buffer.limit();
+        fieldCount = 0;
+        if (position >= limit) {
+            return false;
+        }
+        int pos = position;
+        while (true) {
+            while (pos < limit && isBlank(buffer.get(pos))) {
+                pos++;
+            }
+            int start;
+            int end;
+            boolean hasEscapes = false;
+            if (pos < limit && buffer.get(pos) == '"') {
+                start = ++pos;
+                while (true) {
+                    if (pos >= limit) {
+                        end = pos; // Unterminated quote: the field runs to the end of the buffer
+                        break;
+                    }
+                    if (buffer.get(pos) == '"') {
+                        if (pos + 1 < limit && buffer.get(pos + 1) == '"') {
+                            hasEscapes = true;
+                            pos += 2;
+                            continue;
+                        }
+                        end = pos++;
+                        break;
+                    }
+                    pos++;
+                }
+                pos = skipToDelimiter(pos, limit);
+            } else {
+                start = pos;
+                pos = skipToDelimiter(pos, limit);
+                end = pos;
+                while (end > start && isBlank(buffer.get(end - 1))) {
+                    end--;
+                }
+            }
+            addField(start, end, hasEscapes);
+
+            if (pos < limit && buffer.get(pos) == ',') {
+                pos++;
+                continue;
+            }
+            if (pos < limit) {
+                pos++; // The line feed
+            }
+            break;
+        }
+        position = pos;
+        return true;
+    }
+
+    /**
+     * Gets the number of fields in the current record.
+     *
+     * @return the field count, 0 before the first record and after the last
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Checks whether a field is empty after trimming.
+     *
+     * @param field the zero-based field index
+     * @return {@code true} if the field has no characters
+     */
+    public boolean isEmpty(int field) {
+        checkField(field);
+        return starts[field] == ends[field];
+    }
+
+    /**
+     * Gets a field as a string.
+     *
+     * @param field the zero-based field index
+     * @return the trimmed field, with quotes removed and doubled quotes undone
+     */
+    public String getString(int field) {
+        checkField(field);
+        String text = decode(starts[field], ends[field]);
+        return escaped[field] ? text.replace("\"\"", "\"") : text;
+    }
+
+    /**
+     * Parses a field as a decimal integer without creating a string.
+     *
+     * @param field the zero-based field index
+     * @return the value
+     * @throws NumberFormatException if the field is not an integer in range, as {@link Integer#parseInt} would
+     */
+    public int getInt(int field) {
+        checkField(field);
+        int pos = starts[field];
+        int end = ends[field];
+        boolean negative = pos < end && buffer.get(pos) == '-';
+        if (pos < end && (negative || buffer.get(pos) == '+')) {
+            pos++;
+        }
+        if (pos == end) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        // Accumulate negatively so Integer.MIN_VALUE can be represented
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = value * 10 - digit;
+            if (value < Integer.MIN_VALUE) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+        }
+        if (!negative && value == Integer.MIN_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Parses a field as a time of day, as {@link LocalTime#parse} would. The usual {@code HH:mm} and
+     * {@code HH:mm:ss} forms are parsed without creating a string.
+     *
+     * @param field the zero-based field index
+     * @return the time
+     * @throws DateTimeParseException if the field is not a valid time, as {@link LocalTime#parse} would
+     */
+    public LocalTime getTime(int field) {
+        checkField(field);
+        int start = starts[field];
+        int length = ends[field] - start;
+        if ((length == 5 || length == 8) && buffer.get(start + 2) == ':'
+                && (length == 5 || buffer.get(start + 5) == ':')) {
+            int hour = twoDigits(start);
+            int minute = twoDigits(start + 3);
+            int second = length == 8 ? twoDigits(start + 6) : 0;
+            if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60) {
+                return LocalTime.of(hour, minute, second);
+            }
+        }
+        // Anything else, valid or not, is left to LocalTime so results and errors match it exactly
+        return LocalTime.parse(getString(field));
+    }
+
+    /**
+     * Parses a field as the name of an enum constant, ignoring case, without creating a string.
+     *
+     * @param field the zero-based field index
+     * @param type the enum class
+     * @param <E> the enum type
+     * @return the matching constant
+     * @throws IllegalArgumentException if no constant has that name, as {@link Enum#valueOf} would
+     */
+    public <E extends Enum<E>> E getEnum(int field, Class<E> type) {
+        checkField(field);
+        int start = starts[field];
+        int length = ends[field] - start;
+        for (E constant : type.getEnumConstants()) {
+            String name = constant.name();
+            if (name.length() != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && toUpper(buffer.get(start + i)) == name.charAt(i)) {
+                i++;
+            }
+            if (i == length) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + type.getCanonicalName() + "." + getString(field).toUpperCase());
+    }
+
+    /**
+     * Splits a field into a list, e.g. the pipe-separated IDs in several of the CSV files.
+     *
+     * @param field the zero-based field index
+     * @param separator the ASCII separator character
+     * @return the trimmed items, or an empty list if the field is empty; the list may be modified
+     */
+    public List<String> getList(int field, char separator) {
+        checkField(field);
+        List<String> items = new ArrayList<>();
+        if (escaped[field]) {
+            for (String item : getString(field).split(Pattern.quote(String.valueOf(separator)), -1)) {
+                items.add(item.trim());
+            }
+            return items;
+        }
+        int start = starts[field];
+        int end = ends[field];
+        if (start == end) {
+            return items;
+        }
+        int itemStart = start;
+        for (int pos = start; pos <= end; pos++) {
+            if (pos == end || buffer.get(pos) == separator) {
+                int from = itemStart;
+                int to = pos;
+                while (from < to && isBlank(buffer.get(from))) {
+                    from++;
+                }
+                while (to > from && isBlank(buffer.get(to - 1))) {
+                    to--;
+                }
+                items.add(decode(from, to));
+                itemStart = pos + 1;
+            }
+        }
+        return items;
+    }
+
+    private int skipToDelimiter(int pos, int limit) {
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == ',' || b == '\n') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** Returns the two-digit number at a position, or -1 if either byte is not a digit. */
+    private int twoDigits(int pos) {
+        int tens = buffer.get(pos) - '0';
+        int units = buffer.get(pos + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of a record with " + fieldCount + " fields");
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static char toUpper(byte b) {
+        return (char) (b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b);
+    }
+}
@@ -0,0 +1,112 @@
+package Repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a CSV file so that it is either completely replaced or left as it was, shared by every
+ * repository's save.
+ * <p>
+ * Lines are encoded as UTF-8 into a large buffer that is written to a temporary file beside the target
+ * in few, large writes. {@link #commit()} forces the temporary file to disk and renames it over the
+ * target in one atomic step, so a crash part-way through a save never leaves a truncated file. Closing
+ * a writer that was not committed deletes the temporary file.
+ */
+public final class CsvWriter implements Closeable {
+    /** Size of the buffer lines are collected in before each write. */
+    static final int BUFFER_BYTES = 1 << 18;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Path file;
+    private final Path temp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private boolean committed;
+
+    private CsvWriter(Path file, Path temp, FileChannel channel) {
+        this.file = file;
+        this.temp = temp;
+        this.channel = channel;
+    }
+
+    /**
+     * Starts writing a replacement for a file, creating its directory if needed.
+     *
+     * @param file the file to replace once the writer is committed
+     * @return a writer to a temporary file beside it
+     * @throws IOException if the temporary file cannot be created
+     */
+    public static CsvWriter create(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            return new CsvWriter(file, temp, FileChannel.open(temp, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a line, followed by the platform line separator.
+     *
+     * @param line the line, already joined and without a separator
+     * @throws IOException if the buffer cannot be written out
+     */
+    public void writeLine(String line) throws IOException {
+        put(line.getBytes(StandardCharsets.UTF_8));
+        put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes out what is buffered and atomically replaces the target file with it.
+     *
+     * @throws IOException if the file cannot be written or renamed; the target is then unchanged
+     */
+    public void commit() throws IOException {
+        flush();
+        channel.force(true);
+        channel.close();
+        DurableFiles.replace(temp, file);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+            if (bytes.length > buffer.capacity()) {
+                write(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
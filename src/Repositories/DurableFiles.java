@@ -0,0 +1,53 @@
+package Repositories;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Puts a fully written temporary file in place of another so that the change survives a crash, shared
+ * by the CSV writer, the model snapshot and the journal.
+ * <p>
+ * The caller forces the temporary file's data to disk first. The rename is atomic, so readers see
+ * either the old file or the new one, and the directory is then forced too, because until its entry
+ * is on disk a crash can bring back the old file, or no file at all.
+ */
+final class DurableFiles {
+    private DurableFiles() {
+    }
+
+    /**
+     * Atomically renames a temporary file over a target and makes the rename durable.
+     *
+     * @param temp the replacement, already forced to disk, in the target's directory
+     * @param file the file to replace
+     * @throws IOException if the file cannot be renamed or its directory cannot be synced
+     */
+    static void replace(Path temp, Path file) throws IOException {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to disk.
+     *
+     * @param directory the directory
+     * @throws IOException if the directory cannot be synced
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Some platforms, Windows among them, cannot open a directory; the rename is then as durable
+            // as the file system makes it on its own
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
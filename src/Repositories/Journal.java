@@ -0,0 +1,366 @@
+package Repositories;
+
+import Model.Module;
+import Model.Room;
+import Model.Session;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only write-ahead log of the changes made to the model since the last {@link ModelSnapshot}
+ * (or CSV load), replayed on startup so nothing scheduled between saves is lost in a crash.
+ * <p>
+ * The file starts with a magic number and a generation; a journal is only replayed on top of a base
+ * with the same generation, and compaction writes a new snapshot and starts an empty journal under the
+ * next generation. Each record is framed by its length and a CRC32, so a record torn by a crash is
+ * detected and cut off on the next start.
+ * <p>
+ * Appends only buffer the record. {@link #sync()} makes everything appended so far durable with a single
+ * write and {@code fsync} (group commit): a thread that finds another thread's write in progress waits
+ * for it and, if its own records were not included, writes them together with any that arrived meanwhile.
+ */
+public class Journal implements Closeable {
+    /** Where the application keeps its journal. */
+    public static final String DEFAULT_PATH = "output/snapshot/journal.bin";
+
+    private static final int MAGIC = 0x54544a31; // "TTJ1"
+    private static final int HEADER_BYTES = 12;
+    private static final byte ROOM_ADDED = 1;
+    private static final byte MODULE_ADDED = 2;
+    private static final byte SESSION_SCHEDULED = 3;
+    private static final byte SESSION_REMOVED = 4;
+
+    /** Receives the records of a journal as it is replayed, in the order they were appended. */
+    public interface Handler {
+        void roomAdded(Room room);
+
+        void moduleAdded(Module module);
+
+        void sessionScheduled(Session session);
+
+        void sessionRemoved(String sessionID);
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private long generation;
+
+    // Group commit state, guarded by this
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(4096);
+    private long appended;
+    private long durable;
+    private boolean writing;
+    private IOException failure;
+
+    private Journal(Path file, FileChannel channel, long generation) {
+        this.file = file;
+        this.channel = channel;
+        this.generation = generation;
+    }
+
+    /**
+     * Opens the journal, replaying it first if it continues the loaded base. A journal of another
+     * generation was written against different data; it is set aside with a {@code .stale} suffix and
+     * an empty journal is started.
+     *
+     * @param file the journal file; created if it does not exist
+     * @param generation the generation of the loaded snapshot, or the new one started by a CSV load
+     * @param handler applies each replayed record to the model
+     * @return the journal, positioned after its last intact record
+     * @throws IOException if the journal cannot be read or created
+     */
+    public static Journal open(Path file, long generation, Handler handler) throws IOException {
+        if (Files.isRegularFile(file)) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileGeneration = readHeader(channel);
+            if (fileGeneration == generation) {
+                long end = replay(channel, handler);
+                if (end < channel.size()) {
+                    System.err.println("Journal " + file + ": dropping " + (channel.size() - end) + " bytes of an incomplete record.");
+                    channel.truncate(end);
+                    channel.force(true);
+                }
+                channel.position(end);
+                return new Journal(file, channel, generation);
+            }
+            channel.close();
+            Path stale = file.resolveSibling(file.getFileName() + ".stale");
+            System.err.println("Journal " + file + " does not continue the loaded data; moved to " + stale + ".");
+            Files.move(file, stale, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new Journal(file, create(file, generation), generation);
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the size of the journal file, including records not yet synced.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long size() throws IOException {
+        return channel.size() + pending.size();
+    }
+
+    public void roomAdded(Room room) {
+        append(ROOM_ADDED, out -> {
+            out.writeUTF(room.getId());
+            out.writeInt(room.getCapacity());
+            out.writeByte(room.getType().ordinal());
+        });
+    }
+
+    public void moduleAdded(Module module) {
+        append(MODULE_ADDED, out -> {
+            out.writeUTF(module.getCode());
+            out.writeUTF(module.getName());
+            out.writeInt(module.getLectureHours());
+            out.writeInt(module.getLabHours());
+            out.writeInt(module.getTutorialHours());
+            writeStrings(out, module.getLecturerIDs());
+        });
+    }
+
+    public void sessionScheduled(Session session) {
+        append(SESSION_SCHEDULED, out -> {
+            out.writeUTF(session.getSessionID());
+            out.writeUTF(session.getModuleCode());
+            out.writeUTF(session.getSessionType());
+            out.writeUTF(session.getLecturerID());
+            out.writeUTF(session.getRoomID());
+            writeStrings(out, session.getStudentGroupIDs());
+            out.writeByte(session.getDay().getValue());
+            out.writeShort(session.getStartTime().toSecondOfDay() / 60);
+            out.writeInt(session.getSessionDuration());
+        });
+    }
+
+    public void sessionRemoved(String sessionID) {
+        append(SESSION_REMOVED, out -> out.writeUTF(sessionID));
+    }
+
+    /**
+     * Blocks until every record appended before the call is on disk.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        while (true) {
+            byte[] batch;
+            long batchEnd;
+            synchronized (this) {
+                while (writing && durable < target) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while syncing the journal");
+                    }
+                }
+                if (durable >= target) {
+                    return;
+                }
+                if (failure != null) {
+                    throw new IOException("Journal is unusable after an earlier write failed", failure);
+                }
+                // Become the writer for everything appended so far, ours and other threads'
+                writing = true;
+                batch = pending.toByteArray();
+                batchEnd = appended;
+                pending.reset();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                synchronized (this) {
+                    durable = batchEnd;
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e; // The batch may be partly written; only a restart can recover
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    writing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts an empty journal under a new generation, after a snapshot of the current model has been
+     * written with that generation. No changes may be made while this runs.
+     *
+     * @param newGeneration the generation of the snapshot just written
+     * @throws IOException if the new journal cannot be created
+     */
+    public synchronized void reset(long newGeneration) throws IOException {
+        sync();
+        channel.close();
+        channel = create(file, newGeneration);
+        generation = newGeneration;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /** Encodes a record. Appends from several threads keep the order in which they got the lock. */
+    private void append(byte type, RecordWriter writer) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(record)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+        byte[] payload = record.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            DataOutputStream out = new DataOutputStream(pending);
+            try {
+                out.writeInt(payload.length);
+                out.writeInt((int) crc.getValue());
+                out.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            appended++;
+        }
+    }
+
+    /** Creates an empty journal file for a generation, replacing any existing one atomically. */
+    private static FileChannel create(Path file, long generation) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putLong(generation);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            }
+            DurableFiles.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(HEADER_BYTES);
+        return channel;
+    }
+
+    /** Returns the generation in a journal's header, or -1 if the header is missing or not a journal's. */
+    private static long readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            return -1;
+        }
+        return header.getLong();
+    }
+
+    /** Replays every intact record and returns the offset just past the last one. */
+    private static long replay(FileChannel channel, Handler handler) throws IOException {
+        ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        in.position(HEADER_BYTES);
+        int replayed = 0;
+        while (in.remaining() >= 8) {
+            int start = in.position();
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length <= 0 || length > in.remaining()) {
+                in.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            in.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                in.position(start);
+                break;
+            }
+            apply(new DataInputStream(new ByteArrayInputStream(payload)), handler);
+            replayed++;
+        }
+        if (replayed > 0) {
+            System.out.println("Replayed " + replayed + " journal records.");
+        }
+        return in.position();
+    }
+
+    private static void apply(DataInputStream in, Handler handler) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ROOM_ADDED:
+                handler.roomAdded(new Room(in.readUTF(), in.readInt(), Room.RoomType.values()[in.readByte()]));
+                break;
+            case MODULE_ADDED:
+                handler.moduleAdded(new Module(in.readUTF(), in.readUTF(), in.readInt(), in.readInt(), in.readInt(),
+                        readStrings(in)));
+                break;
+            case SESSION_SCHEDULED:
+                handler.sessionScheduled(new Session(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readUTF(), readStrings(in), DayOfWeek.of(in.readByte()),
+                        LocalTime.ofSecondOfDay(in.readShort() * 60L), in.readInt()));
+                break;
+            case SESSION_REMOVED:
+                handler.sessionRemoved(in.readUTF());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    /** Writes the fields of one record. */
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
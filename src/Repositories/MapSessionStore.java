@@ -0,0 +1,116 @@
+package Repositories;
+
+import Model.Session;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps each session as an object in a concurrent hash map keyed by session ID.
+ */
+class MapSessionStore implements SessionStore {
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Session session) {
+        sessions.put(session.getSessionID(), session);
+    }
+
+    @Override
+    public Session get(String sessionID) {
+        return sessions.get(sessionID);
+    }
+
+    @Override
+    public boolean remove(String sessionID) {
+        return sessions.remove(sessionID) != null;
+    }
+
+    @Override
+    public List<Session> all() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void scan(Consumer<SessionCursor> visitor) {
+        ObjectCursor cursor = new ObjectCursor();
+        for (Session session : sessions.values()) {
+            cursor.session = session;
+            visitor.accept(cursor);
+        }
+    }
+
+    /** Reads the fields of one session object after another. */
+    private static class ObjectCursor implements SessionCursor {
+        Session session;
+
+        @Override
+        public String getSessionID() {
+            return session.getSessionID();
+        }
+
+        @Override
+        public int getModuleSymbol() {
+            return session.getModuleSymbol();
+        }
+
+        @Override
+        public int getTypeSymbol() {
+            return session.getTypeSymbol();
+        }
+
+        @Override
+        public int getLecturerSymbol() {
+            return session.getLecturerSymbol();
+        }
+
+        @Override
+        public int getRoomSymbol() {
+            return session.getRoomSymbol();
+        }
+
+        @Override
+        public int getGroupCount() {
+            return session.getStudentGroupSymbols().length;
+        }
+
+        @Override
+        public int getGroupSymbol(int index) {
+            return session.getStudentGroupSymbols()[index];
+        }
+
+        @Override
+        public DayOfWeek getDay() {
+            return session.getDay();
+        }
+
+        @Override
+        public LocalTime getStartTime() {
+            return session.getStartTime();
+        }
+
+        @Override
+        public int getStartMinuteOfWeek() {
+            return session.getStartMinuteOfWeek();
+        }
+
+        @Override
+        public int getDuration() {
+            return session.getSessionDuration();
+        }
+
+        @Override
+        public Session getSession() {
+            return session;
+        }
+    }
+}
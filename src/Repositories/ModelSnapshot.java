@@ -0,0 +1,355 @@
+package Repositories;
+
+import Model.*;
+import Model.Module;
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary copy of the whole loaded model, so the next start can skip parsing the CSV files.
+ * <p>
+ * Layout (big-endian): magic, {@link #VERSION}, a fingerprint of the CSV files the model was loaded from,
+ * the generation of the {@link Journal} that continues it, a table of every distinct string, then programmes, modules, rooms, groups, users and sessions, each
+ * section a count followed by records that refer to strings by their index in the table.
+ * A snapshot is only used if its version and fingerprint match; otherwise the CSVs are loaded as usual.
+ * <p>
+ * Every session in a snapshot was already checked when it was first scheduled, so reading one puts
+ * each session straight back into its room, lecturer and group timetables without the loader's
+ * validation and messages. Passwords are stored only as hashes; writing waits until any plain-text
+ * passwords loaded from the CSVs have been hashed.
+ */
+public final class ModelSnapshot {
+    /** Where the application keeps its snapshot. */
+    public static final String DEFAULT_PATH = "output/snapshot/model.bin";
+    /** Format version; a snapshot with any other version is ignored. */
+    public static final int VERSION = 5;
+    /** The CSV files a snapshot stands in for; its fingerprint covers all of them. */
+    static final String[] SOURCES = {
+            "Resources/Programmes.csv", "Resources/Modules.csv", "Resources/Rooms.csv",
+            "Resources/StudentGroups.csv", "Resources/Users.csv", "Resources/Sessions.csv"
+    };
+
+    private static final int MAGIC = 0x54545348; // "TTSH"
+    private static final byte ADMIN = 0;
+    private static final byte LECTURER = 1;
+    private static final byte STUDENT = 2;
+
+    private ModelSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the repositories. The file is written under a temporary name, forced to disk
+     * and then renamed, so a crash never leaves a half-written snapshot in place, and once this returns
+     * the new snapshot survives a crash; only then may the journal it continues be reset.
+     *
+     * @param file where to write the snapshot
+     * @param generation the journal generation that continues from this snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path file, long generation, ProgrammeRepository programmeRepo, ModuleRepository moduleRepo,
+                             RoomRepository roomRepo, StudentGroupRepository groupRepo, UserRepository userRepo,
+                             SessionRepository sessionRepo) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        List<Programme> programmes = programmeRepo.getAll();
+        body.writeInt(programmes.size());
+        for (Programme programme : programmes) {
+            writeString(body, strings, programme.getCode());
+            writeString(body, strings, programme.getName());
+            body.writeInt(programme.getYear());
+            body.writeInt(programme.getSemester());
+            writeStrings(body, strings, programme.getModuleCodes());
+        }
+
+        List<Module> modules = moduleRepo.getAll();
+        body.writeInt(modules.size());
+        for (Module module : modules) {
+            writeString(body, strings, module.getCode());
+            writeString(body, strings, module.getName());
+            body.writeInt(module.getLectureHours());
+            body.writeInt(module.getLabHours());
+            body.writeInt(module.getTutorialHours());
+            writeStrings(body, strings, module.getLecturerIDs());
+        }
+
+        List<Room> rooms = roomRepo.getAll();
+        body.writeInt(rooms.size());
+        for (Room room : rooms) {
+            writeString(body, strings, room.getId());
+            body.writeInt(room.getCapacity());
+            body.writeByte(room.getType().ordinal());
+        }
+
+        List<StudentGroup> groups = groupRepo.getAll();
+        body.writeInt(groups.size());
+        for (StudentGroup group : groups) {
+            writeString(body, strings, group.getGroupId());
+            writeString(body, strings, group.getProgrammeCode());
+            body.writeInt(group.getYear());
+            writeStrings(body, strings, group.getStudentIDs());
+        }
+
+        userRepo.awaitHashedPasswords();
+        List<User> users = userRepo.getAll();
+        body.writeInt(users.size());
+        for (User user : users) {
+            if (user instanceof Student) {
+                body.writeByte(STUDENT);
+            } else if (user instanceof Lecturer) {
+                body.writeByte(LECTURER);
+            } else {
+                body.writeByte(ADMIN);
+            }
+            writeString(body, strings, user.getId());
+            writeString(body, strings, user.getName());
+            writeString(body, strings, user.getEmail());
+            writeString(body, strings, UserRepository.savedPassword(user));
+            writeString(body, strings, user instanceof Student ? ((Student) user).getStudentGroup().getGroupId() : null);
+        }
+
+        List<Session> sessions = sessionRepo.getAll();
+        body.writeInt(sessions.size());
+        for (Session session : sessions) {
+            writeString(body, strings, session.getSessionID());
+            writeString(body, strings, session.getModuleCode());
+            writeString(body, strings, session.getSessionType());
+            writeString(body, strings, session.getLecturerID());
+            writeString(body, strings, session.getRoomID());
+            writeStrings(body, strings, session.getStudentGroupIDs());
+            body.writeByte(session.getDay().getValue());
+            body.writeShort(session.getStartTime().toSecondOfDay() / 60);
+            body.writeInt(session.getSessionDuration());
+        }
+        body.flush();
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprintSources());
+                out.writeLong(generation);
+                out.writeInt(strings.size());
+                for (String s : strings.keySet()) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                bodyBytes.writeTo(out);
+                out.flush();
+                channel.force(true);
+            }
+            DurableFiles.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads a snapshot into empty repositories, if there is one that matches the current CSV files.
+     * The file is memory-mapped and fully decoded before any repository is changed.
+     *
+     * @param file the snapshot to read
+     * @return the snapshot's journal generation, or -1 if it is missing, of another version or stale
+     * @throws IOException if the snapshot cannot be read or is corrupt; the repositories are then unchanged
+     */
+    public static long read(Path file, ProgrammeRepository programmeRepo, ModuleRepository moduleRepo,
+                               RoomRepository roomRepo, StudentGroupRepository groupRepo, UserRepository userRepo,
+                               SessionRepository sessionRepo) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return -1;
+        }
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.remaining() < 24 || in.getInt() != MAGIC || in.getInt() != VERSION
+                    || in.getLong() != fingerprintSources()) {
+                return -1;
+            }
+            long generation = in.getLong();
+
+            String[] strings = new String[in.getInt()];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.getInt();
+                if (scratch.length < length) {
+                    scratch = new byte[length];
+                }
+                in.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            List<Programme> programmes = new ArrayList<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                programmes.add(new Programme(readString(in, strings), readString(in, strings), in.getInt(), in.getInt(),
+                        readStrings(in, strings)));
+            }
+
+            List<Module> modules = new ArrayList<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                modules.add(new Module(readString(in, strings), readString(in, strings), in.getInt(), in.getInt(),
+                        in.getInt(), readStrings(in, strings)));
+            }
+
+            List<Room> rooms = new ArrayList<>();
+            Map<String, Room> roomsById = new HashMap<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                Room room = new Room(readString(in, strings), in.getInt(), Room.RoomType.values()[in.get()]);
+                rooms.add(room);
+                roomsById.put(room.getId(), room);
+            }
+
+            List<StudentGroup> groups = new ArrayList<>();
+            Map<String, StudentGroup> groupsById = new HashMap<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                StudentGroup group = new StudentGroup(readString(in, strings), readString(in, strings), in.getInt(),
+                        readStrings(in, strings));
+                groups.add(group);
+                groupsById.put(group.getGroupId(), group);
+            }
+
+            List<User> users = new ArrayList<>();
+            Map<String, Lecturer> lecturersById = new HashMap<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                byte kind = in.get();
+                String id = readString(in, strings);
+                String name = readString(in, strings);
+                String email = readString(in, strings);
+                Password password = Password.hashed(readString(in, strings));
+                String groupId = readString(in, strings);
+                if (kind == STUDENT) {
+                    users.add(new Student(id, name, email, password, groupsById.get(groupId)));
+                } else if (kind == LECTURER) {
+                    Lecturer lecturer = new Lecturer(id, name, email, password);
+                    users.add(lecturer);
+                    lecturersById.put(id, lecturer);
+                } else {
+                    users.add(new Admin(id, name, email, password));
+                }
+            }
+
+            List<Session> sessions = new ArrayList<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                Session session = new Session(readString(in, strings), readString(in, strings), readString(in, strings),
+                        readString(in, strings), readString(in, strings), readStrings(in, strings),
+                        DayOfWeek.of(in.get()), LocalTime.ofSecondOfDay(in.getShort() * 60L), in.getInt());
+                if (!roomsById.containsKey(session.getRoomID()) || !lecturersById.containsKey(session.getLecturerID())) {
+                    throw new IOException("Corrupt snapshot " + file + ": session " + session.getSessionID()
+                            + " refers to a missing room or lecturer");
+                }
+                sessions.add(session);
+            }
+
+            // Decoded in full, so the snapshot is sound: now fill the repositories and timetables
+            programmes.forEach(programmeRepo::add);
+            modules.forEach(moduleRepo::add);
+            rooms.forEach(roomRepo::add);
+            groups.forEach(groupRepo::add);
+            users.forEach(userRepo::add);
+            for (Session session : sessions) {
+                roomsById.get(session.getRoomID()).getTimetable().addSession(session);
+                lecturersById.get(session.getLecturerID()).getTimetable().addSession(session);
+                for (String groupId : session.getStudentGroupIDs()) {
+                    StudentGroup group = groupsById.get(groupId);
+                    if (group != null) {
+                        group.getTimetable().addSession(session);
+                    }
+                }
+                sessionRepo.add(session);
+            }
+            return generation;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot " + file + ": " + e, e);
+        }
+    }
+
+    /**
+     * Fingerprints the CSV files a snapshot is built from. Plain files are identified by size and
+     * modification time; files inside an archive by a checksum of their contents.
+     *
+     * @return a value that changes whenever any of the files does
+     * @throws IOException if a file cannot be inspected
+     */
+    static long fingerprintSources() throws IOException {
+        long fingerprint = VERSION;
+        for (String source : SOURCES) {
+            URL url = ModelSnapshot.class.getClassLoader().getResource(source);
+            long value = -1;
+            if (url != null && "file".equals(url.getProtocol())) {
+                try {
+                    Path path = Paths.get(url.toURI());
+                    value = Files.size(path) * 31 + Files.getLastModifiedTime(path).toMillis();
+                } catch (URISyntaxException e) {
+                    url = null;
+                }
+            }
+            if (url != null && value == -1) {
+                try (InputStream is = url.openStream()) {
+                    CRC32 crc = new CRC32();
+                    crc.update(is.readAllBytes());
+                    value = crc.getValue();
+                }
+            }
+            fingerprint = fingerprint * 1_000_003 + value;
+        }
+        return fingerprint;
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.put(s, index);
+        }
+        out.writeInt(index);
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> strings, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String s : list) {
+            writeString(out, strings, s);
+        }
+    }
+
+    private static String readString(ByteBuffer in, String[] strings) {
+        int index = in.getInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    private static List<String> readStrings(ByteBuffer in, String[] strings) {
+        int size = in.getInt();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(strings[in.getInt()]);
+        }
+        return list;
+    }
+}
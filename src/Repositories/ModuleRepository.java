@@ -2,9 +2,10 @@ package Repositories;
 
 import Model.Module;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,20 +14,37 @@ import java.util.Map;
  */
 public class ModuleRepository {
 
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/Modules_out.csv";
+
     private Map<String, Module> modules;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final SymbolIndex<Module> modulesBySymbol = new SymbolIndex<>();
 
     public ModuleRepository() {
-        this.modules = new HashMap<>();
+        this.modules = new ConcurrentHashMap<>();
     }
 
-    public void add(Module module) {
+    public synchronized void add(Module module) {
         modules.put(module.getCode(), module);
+        modulesBySymbol.put(module.getSymbol(), module);
+        changes.changed();
     }
 
     public Module getByCode(String code) {
         return modules.get(code);
     }
 
+    /**
+     * Gets a module by the symbol of its ID, e.g. from {@link Model.Session#getModuleSymbol()}, with one array read.
+     *
+     * @param symbol a symbol from {@link Model.SymbolTable#MODULES}
+     * @return the module, or {@code null} if there is none with that ID
+     */
+    public Module getBySymbol(int symbol) {
+        return modulesBySymbol.get(symbol);
+    }
+
     public Module getById(String code) {
         return modules.get(code);
     }
@@ -35,33 +53,27 @@ public class ModuleRepository {
         return new ArrayList<>(modules.values());
     }
 
-    /** Loads Module data from Modules.csv. */
-    public void loadData() {
+    /** Loads Module data from Modules.csv. Returns {@code false} if the file could not be read. */
+    public boolean loadData() {
         String filePath = "Resources/Modules.csv";
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
+        try {
+            CsvReader csv = CsvReader.openResource(filePath);
+            csv.nextRecord(); // Skip header
 
-            br.readLine();
-            String line;
-
-            while ((line = br.readLine()) != null) {
+            while (csv.nextRecord()) {
                 // Code, Name, Lecture_Hours, Lab_Hours, Tutorial_Hours, Lecturer_IDs
-                String[] data = line.split(",");
-                if (data.length != 6) continue;
+                if (csv.fieldCount() != 6) continue;
 
-                String code = data[0];
-                String name = data[1];
+                String code = csv.getString(0);
+                String name = csv.getString(1);
 
                 try {
-                    int lecHrs = Integer.parseInt(data[2]);
-                    int labHrs = Integer.parseInt(data[3]);
-                    int tutHrs = Integer.parseInt(data[4]);
+                    int lecHrs = csv.getInt(2);
+                    int labHrs = csv.getInt(3);
+                    int tutHrs = csv.getInt(4);
 
                     // Parse pipe-separated Lecturer IDs
-                    List<String> lecturerIds = new ArrayList<>();
-                    if (!data[5].trim().isEmpty()) {
-                        lecturerIds = Arrays.asList(data[5].split("\\|"));
-                    }
+                    List<String> lecturerIds = csv.getList(5, '|');
 
                     Module module = new Module(code, name, lecHrs, labHrs, tutHrs, lecturerIds);
                     add(module);
@@ -69,33 +81,49 @@ public class ModuleRepository {
                     System.err.println("Skipping module " + code + ": Invalid hour format.");
                 }
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
+            return false;
         }
     }
 
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
+    }
+
+    /** Saves all Module data to Modules_out.csv, replacing the previous file atomically. */
     public void saveData() {
-        String filePath = "output/csv/Modules_out.csv";
+        String filePath = OUTPUT_PATH;
+        long saving = changes.current();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write header
-            writer.println("Code,Name,Lecture_Hours,Lab_Hours,Tutorial_Hours,Lecturer_IDs");
+            writer.writeLine("Code,Name,Lecture_Hours,Lab_Hours,Tutorial_Hours,Lecturer_IDs");
 
             // Write each module as a CSV line
             for (Module module : modules.values()) {
                 String lecturerIds = String.join("|", module.getLecturerIDs());
 
-                writer.printf("%s,%s,%d,%d,%d,%s%n",
+                writer.writeLine(String.join(",",
                         module.getCode(),
                         module.getName(),
-                        module.getLectureHours(),
-                        module.getLabHours(),
-                        module.getTutorialHours(),
+                        String.valueOf(module.getLectureHours()),
+                        String.valueOf(module.getLabHours()),
+                        String.valueOf(module.getTutorialHours()),
                         lecturerIds
-                );
+                ));
             }
 
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Module data saved to: " + filePath);
 
         } catch (IOException e) {
@@ -0,0 +1,438 @@
+package Repositories;
+
+import Model.Session;
+import Model.SymbolTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps sessions outside the Java heap, for archives of many years of sessions that should neither grow
+ * the heap nor lengthen garbage collection. Memory comes in segments of {@link #SEGMENT_BYTES}, either
+ * direct buffers or, when the {@code timetable.sessions.file} system property names a file, pages of that
+ * file mapped into memory, so the archive may exceed both the heap and the direct memory limit.
+ * <p>
+ * Each session is a fixed-width record of {@link #RECORD_BYTES}: its module, type, lecturer and room
+ * symbols, day, start and duration, plus the address of a variable-length entry in the data segments
+ * holding its ID and group symbols. An open-addressing hash table of record numbers, also off the heap,
+ * finds a session by ID. The only per-session objects are the ones {@link #get}, {@link #all} and
+ * {@link SessionCursor#getSession()} create on request, so {@link #get} returns an equal copy rather than
+ * the object that was added (see {@link Session#sameAs}).
+ * <p>
+ * Records are appended and never moved; a removed session's space is not reused, which suits an archive
+ * that is mostly appended to. The mapped file is scratch space, recreated on every start, not a saved
+ * format: symbols are only meaningful within one run. Reads share a lock; adds and removes take it exclusively.
+ */
+class OffHeapSessionStore implements SessionStore {
+    /** System property naming a file to map the segments from; direct memory is used if it is not set. */
+    static final String FILE_PROPERTY = "timetable.sessions.file";
+
+    /** Size of each block of records or data. */
+    static final int SEGMENT_BYTES = 1 << 24;
+    /** Size of one session record. */
+    static final int RECORD_BYTES = 40;
+
+    private static final int RECORDS_PER_SEGMENT = SEGMENT_BYTES / RECORD_BYTES;
+
+    // Record layout
+    private static final int DATA = 0;      // long: address of the ID and groups in the data segments
+    private static final int START = 8;     // long: start time as nano of day
+    private static final int MODULE = 16;   // int symbols
+    private static final int TYPE = 20;
+    private static final int LECTURER = 24;
+    private static final int ROOM = 28;
+    private static final int DURATION = 32; // int minutes
+    private static final int DAY = 36;      // byte: 1 (Monday) to 7, or 0 once removed
+
+    // Hash table slots: 0 is empty, REMOVED was in use, anything else is a record number + 1
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel file; // null when segments are direct buffers
+    private long fileSize;
+
+    private final List<ByteBuffer> recordSegments = new ArrayList<>();
+    private final List<ByteBuffer> dataSegments = new ArrayList<>();
+    private int dataOffset = SEGMENT_BYTES; // Free space in the last data segment starts here
+    private int recordCount; // Records appended, including removed ones
+    private int liveCount;
+
+    private ByteBuffer slots;
+    private int slotsInUse; // Including removed slots, which still lengthen probes
+
+    /** Creates a store in direct memory, or mapped from the file named by {@link #FILE_PROPERTY}. */
+    OffHeapSessionStore() {
+        String path = System.getProperty(FILE_PROPERTY);
+        try {
+            this.file = path == null ? null : FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open session file " + path, e);
+        }
+        this.slots = ByteBuffer.allocateDirect(1024 * Integer.BYTES);
+    }
+
+    @Override
+    public void add(Session session) {
+        byte[] id = session.getSessionID().getBytes(StandardCharsets.UTF_8);
+        int[] groups = session.getStudentGroupSymbols();
+        lock.writeLock().lock();
+        try {
+            int existing = find(id);
+            if (existing >= 0) {
+                remove(existing, id);
+            }
+            if ((slotsInUse + 1) * 2L > slots.capacity() / Integer.BYTES) {
+                rehash();
+            }
+            long data = writeData(id, groups);
+
+            if (recordCount == recordSegments.size() * RECORDS_PER_SEGMENT) {
+                recordSegments.add(newSegment());
+            }
+            int record = recordCount++;
+            ByteBuffer segment = recordSegments.get(record / RECORDS_PER_SEGMENT);
+            int at = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+            segment.putLong(at + DATA, data);
+            segment.putLong(at + START, session.getStartTime().toNanoOfDay());
+            segment.putInt(at + MODULE, session.getModuleSymbol());
+            segment.putInt(at + TYPE, session.getTypeSymbol());
+            segment.putInt(at + LECTURER, session.getLecturerSymbol());
+            segment.putInt(at + ROOM, session.getRoomSymbol());
+            segment.putInt(at + DURATION, session.getSessionDuration());
+            segment.put(at + DAY, (byte) session.getDay().getValue());
+
+            insert(id, record);
+            liveCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Session get(String sessionID) {
+        byte[] id = sessionID.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int record = find(id);
+            return record >= 0 ? materialise(record) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String sessionID) {
+        byte[] id = sessionID.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int record = find(id);
+            if (record < 0) {
+                return false;
+            }
+            remove(record, id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Session> all() {
+        List<Session> all = new ArrayList<>();
+        scan(cursor -> all.add(cursor.getSession()));
+        return all;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void scan(Consumer<SessionCursor> visitor) {
+        lock.readLock().lock();
+        try {
+            RecordCursor cursor = new RecordCursor();
+            for (int record = 0; record < recordCount; record++) {
+                cursor.segment = recordSegments.get(record / RECORDS_PER_SEGMENT);
+                cursor.at = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+                if (cursor.segment.get(cursor.at + DAY) != 0) {
+                    visitor.accept(cursor);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Builds a session object from a record. */
+    private Session materialise(int record) {
+        RecordCursor cursor = new RecordCursor();
+        cursor.segment = recordSegments.get(record / RECORDS_PER_SEGMENT);
+        cursor.at = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        return cursor.getSession();
+    }
+
+    /** Marks a record removed and frees its hash table slot; the caller holds the write lock. */
+    private void remove(int record, byte[] id) {
+        ByteBuffer segment = recordSegments.get(record / RECORDS_PER_SEGMENT);
+        segment.put((record % RECORDS_PER_SEGMENT) * RECORD_BYTES + DAY, (byte) 0);
+        slots.putInt(slotOf(id, record) * Integer.BYTES, REMOVED);
+        liveCount--;
+    }
+
+    /** Appends an ID and group list to the data segments, returning its address. */
+    private long writeData(byte[] id, int[] groups) {
+        if (id.length > 0xFFFF) {
+            throw new IllegalArgumentException("Session ID longer than 65535 bytes");
+        }
+        long size = 2L + id.length + 4 + 4L * groups.length;
+        if (size > SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Session has too many groups to store: " + groups.length);
+        }
+        if (dataOffset + size > SEGMENT_BYTES) {
+            dataSegments.add(newSegment());
+            dataOffset = 0;
+        }
+        ByteBuffer segment = dataSegments.get(dataSegments.size() - 1);
+        long address = (long) (dataSegments.size() - 1) * SEGMENT_BYTES + dataOffset;
+        int at = dataOffset;
+        segment.putShort(at, (short) id.length);
+        segment.put(at + 2, id);
+        at += 2 + id.length;
+        segment.putInt(at, groups.length);
+        for (int group : groups) {
+            at += 4;
+            segment.putInt(at, group);
+        }
+        dataOffset = at + 4;
+        return address;
+    }
+
+    private ByteBuffer newSegment() {
+        if (file == null) {
+            return ByteBuffer.allocateDirect(SEGMENT_BYTES);
+        }
+        try {
+            ByteBuffer segment = file.map(FileChannel.MapMode.READ_WRITE, fileSize, SEGMENT_BYTES);
+            fileSize += SEGMENT_BYTES;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend the session file", e);
+        }
+    }
+
+    /** Returns the record with an ID, or -1; the caller holds the lock. */
+    private int find(byte[] id) {
+        int mask = slots.capacity() / Integer.BYTES - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int value = slots.getInt(slot * Integer.BYTES);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != REMOVED && idEquals(value - 1, id)) {
+                return value - 1;
+            }
+        }
+    }
+
+    /** Returns the hash table slot holding a record, which must be in the table. */
+    private int slotOf(byte[] id, int record) {
+        int mask = slots.capacity() / Integer.BYTES - 1;
+        int slot = hash(id) & mask;
+        while (slots.getInt(slot * Integer.BYTES) != record + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Adds a record whose ID is not in the table, which has room for it. */
+    private void insert(byte[] id, int record) {
+        int mask = slots.capacity() / Integer.BYTES - 1;
+        int slot = hash(id) & mask;
+        int value;
+        while ((value = slots.getInt(slot * Integer.BYTES)) != EMPTY && value != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (value == EMPTY) {
+            slotsInUse++;
+        }
+        slots.putInt(slot * Integer.BYTES, record + 1);
+    }
+
+    /** Rebuilds the hash table without removed slots, doubling it if the live records need the room. */
+    private void rehash() {
+        int capacity = slots.capacity() / Integer.BYTES;
+        while ((liveCount + 1) * 2L > capacity / 2) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalStateException("Too many sessions for the off-heap index");
+        }
+        slots = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+        slotsInUse = 0;
+        int mask = capacity - 1;
+        for (int record = 0; record < recordCount; record++) {
+            ByteBuffer segment = recordSegments.get(record / RECORDS_PER_SEGMENT);
+            int at = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+            if (segment.get(at + DAY) == 0) {
+                continue;
+            }
+            int slot = hash(dataSegment(segment.getLong(at + DATA)), dataOffset(segment.getLong(at + DATA))) & mask;
+            while (slots.getInt(slot * Integer.BYTES) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putInt(slot * Integer.BYTES, record + 1);
+            slotsInUse++;
+        }
+    }
+
+    private boolean idEquals(int record, byte[] id) {
+        long address = recordSegments.get(record / RECORDS_PER_SEGMENT)
+                .getLong((record % RECORDS_PER_SEGMENT) * RECORD_BYTES + DATA);
+        ByteBuffer data = dataSegment(address);
+        int at = dataOffset(address);
+        if (data.getShort(at) != (short) id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (data.get(at + 2 + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer dataSegment(long address) {
+        return dataSegments.get((int) (address / SEGMENT_BYTES));
+    }
+
+    private static int dataOffset(long address) {
+        return (int) (address % SEGMENT_BYTES);
+    }
+
+    private static int hash(byte[] id) {
+        int h = 0;
+        for (byte b : id) {
+            h = 31 * h + b;
+        }
+        return spread(h);
+    }
+
+    /** Hashes an ID stored in a data segment exactly as {@link #hash(byte[])} hashes its bytes. */
+    private static int hash(ByteBuffer data, int at) {
+        int length = data.getShort(at) & 0xFFFF;
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + data.get(at + 2 + i);
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Reads one record after another, straight from the segments. */
+    private class RecordCursor implements SessionCursor {
+        ByteBuffer segment;
+        int at;
+
+        @Override
+        public String getSessionID() {
+            long address = segment.getLong(at + DATA);
+            ByteBuffer data = dataSegment(address);
+            int offset = dataOffset(address);
+            byte[] id = new byte[data.getShort(offset) & 0xFFFF];
+            data.get(offset + 2, id);
+            return new String(id, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getModuleSymbol() {
+            return segment.getInt(at + MODULE);
+        }
+
+        @Override
+        public int getTypeSymbol() {
+            return segment.getInt(at + TYPE);
+        }
+
+        @Override
+        public int getLecturerSymbol() {
+            return segment.getInt(at + LECTURER);
+        }
+
+        @Override
+        public int getRoomSymbol() {
+            return segment.getInt(at + ROOM);
+        }
+
+        @Override
+        public int getGroupCount() {
+            long address = segment.getLong(at + DATA);
+            ByteBuffer data = dataSegment(address);
+            int offset = dataOffset(address);
+            return data.getInt(offset + 2 + (data.getShort(offset) & 0xFFFF));
+        }
+
+        @Override
+        public int getGroupSymbol(int index) {
+            long address = segment.getLong(at + DATA);
+            ByteBuffer data = dataSegment(address);
+            int offset = dataOffset(address);
+            return data.getInt(offset + 2 + (data.getShort(offset) & 0xFFFF) + 4 + 4 * index);
+        }
+
+        @Override
+        public DayOfWeek getDay() {
+            return DayOfWeek.of(segment.get(at + DAY));
+        }
+
+        @Override
+        public LocalTime getStartTime() {
+            return LocalTime.ofNanoOfDay(segment.getLong(at + START));
+        }
+
+        @Override
+        public int getStartMinuteOfWeek() {
+            return (segment.get(at + DAY) - 1) * Session.MINUTES_PER_DAY + (int) (segment.getLong(at + START) / 60_000_000_000L);
+        }
+
+        @Override
+        public int getDuration() {
+            return segment.getInt(at + DURATION);
+        }
+
+        @Override
+        public Session getSession() {
+            int groupCount = getGroupCount();
+            List<String> groups = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++) {
+                groups.add(SymbolTable.GROUPS.name(getGroupSymbol(i)));
+            }
+            return new Session(getSessionID(), SymbolTable.MODULES.name(getModuleSymbol()),
+                    SymbolTable.SESSION_TYPES.name(getTypeSymbol()), SymbolTable.USERS.name(getLecturerSymbol()),
+                    SymbolTable.ROOMS.name(getRoomSymbol()), groups, getDay(), getStartTime(), getDuration());
+        }
+    }
+}
@@ -2,9 +2,10 @@ package Repositories;
 
 import Model.Programme;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,14 +13,19 @@ import java.util.Map;
  * Manages the storage and retrieval of Programme objects.
  */
 public class ProgrammeRepository {
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/Programmes_out.csv";
+
     private Map<String, Programme> programmes;
+    private final ChangeTracker changes = new ChangeTracker();
 
     public ProgrammeRepository() {
-        this.programmes = new HashMap<>();
+        this.programmes = new ConcurrentHashMap<>();
     }
 
     public void add(Programme programme) {
         programmes.put(programme.getCode(), programme);
+        changes.changed();
     }
 
     public Programme getByCode(String code) {
@@ -35,65 +41,73 @@ public class ProgrammeRepository {
         return new ArrayList<>(programmes.values());
     }
 
-    /** Loads Programme data from Programmes.csv. */
-    public void loadData() {
+    /** Loads Programme data from Programmes.csv. Returns {@code false} if the file could not be read. */
+    public boolean loadData() {
         String filePath = "Resources/Programmes.csv";
 
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-
-            br.readLine();
-            String line;
+        try {
+            CsvReader csv = CsvReader.openResource(filePath);
+            csv.nextRecord(); // Skip header
 
-            while ((line = br.readLine()) != null) {
+            while (csv.nextRecord()) {
 
-                String[] parts = line.split(",");
-
-                if (parts.length < 5) {
-                    System.out.println("Invalid programme entry: " + line);
+                if (csv.fieldCount() < 5) {
+                    System.out.println("Invalid programme entry: " + csv.getString(0));
                     continue;
                 }
 
-                String code = parts[0].trim();
-                String name = parts[1].trim();
-                int year = Integer.parseInt(parts[2].trim());
-                int semester = Integer.parseInt(parts[3].trim());
+                String code = csv.getString(0);
+                String name = csv.getString(1);
+                int year = csv.getInt(2);
+                int semester = csv.getInt(3);
 
-                List<String> moduleCodes = new ArrayList<>();
-
-                if (!parts[4].trim().isEmpty()) {
-                    moduleCodes = Arrays.asList(parts[4].split("\\|"));
-                }
+                List<String> moduleCodes = csv.getList(4, '|');
 
                 Programme p = new Programme(code, name, year, semester, moduleCodes);
                 add(p);
             }
 
+            return true;
         } catch (Exception e) {
             System.out.println("Error loading programmes: " + e.getMessage());
+            return false;
         }
     }
 
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
+    }
+
+    /** Saves all Programme data to Programmes_out.csv, replacing the previous file atomically. */
     public void saveData() {
-        String filePath = "output/csv/Programmes_out.csv";
+        String filePath = OUTPUT_PATH;
+        long saving = changes.current();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write header
-            writer.println("Code,Name,Year,Semester,Module_Codes");
+            writer.writeLine("Code,Name,Year,Semester,Module_Codes");
 
             // Write each module as a CSV line
             for (Programme p : programmes.values()) {
                 String moduleCodes = String.join("|", p.getModuleCodes());
 
-                writer.printf("%s,%s,%d,%d,%s%n",
+                writer.writeLine(String.join(",",
                         p.getCode(),
                         p.getName(),
-                        p.getYear(),
-                        p.getSemester(),
-                        moduleCodes);
+                        String.valueOf(p.getYear()),
+                        String.valueOf(p.getSemester()),
+                        moduleCodes));
             }
 
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Programme data saved to: " + filePath);
 
         } catch (IOException e) {
@@ -2,24 +2,105 @@ package Repositories;
 
 import Model.Room;
 import Model.Room.RoomType; // Import the inner enum
+import Model.Session;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages the storage and retrieval of Room objects.
+ * Rooms are also indexed by type and capacity so free rooms can be found without scanning them all.
  */
 public class RoomRepository {
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/Rooms_out.csv";
+
     private Map<String, Room> rooms;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final SymbolIndex<Room> roomsBySymbol = new SymbolIndex<>();
+
+    /** Rooms of each type, keyed by capacity. */
+    private Map<RoomType, ConcurrentSkipListMap<Integer, List<Room>>> roomsByTypeAndCapacity;
 
     public RoomRepository() {
-        this.rooms = new HashMap<>();
+        this.rooms = new ConcurrentHashMap<>();
+        this.roomsByTypeAndCapacity = new EnumMap<>(RoomType.class);
+        for (RoomType type : RoomType.values()) {
+            roomsByTypeAndCapacity.put(type, new ConcurrentSkipListMap<>());
+        }
     }
 
-    public void add(Room room) {
-        rooms.put(room.getId(), room);
+    public synchronized void add(Room room) {
+        Room previous = rooms.put(room.getId(), room);
+        if (previous != null) {
+            List<Room> sameCapacity = roomsByTypeAndCapacity.get(previous.getType()).get(previous.getCapacity());
+            sameCapacity.remove(previous);
+        }
+        roomsByTypeAndCapacity.get(room.getType())
+                .computeIfAbsent(room.getCapacity(), c -> new CopyOnWriteArrayList<>())
+                .add(room);
+        roomsBySymbol.put(room.getSymbol(), room);
+        changes.changed();
+    }
+
+    /**
+     * Finds every room of a type that seats at least {@code minCapacity} and has nothing scheduled
+     * in the given window. Only rooms of the requested type and capacity are visited, and each is
+     * checked with a single lookup in its timetable.
+     *
+     * @param type the required room type
+     * @param minCapacity the number of seats needed
+     * @param day the day of the window
+     * @param startTime the start of the window
+     * @param durationMinutes the length of the window in minutes
+     * @return the free rooms, smallest capacity first
+     */
+    public List<Room> findFreeRooms(RoomType type, int minCapacity, DayOfWeek day, LocalTime startTime, int durationMinutes) {
+        int start = Session.minuteOfWeek(day, startTime);
+        int end = start + durationMinutes;
+        List<Room> free = new ArrayList<>();
+        for (List<Room> sameCapacity : roomsByTypeAndCapacity.get(type).tailMap(minCapacity).values()) {
+            for (Room room : sameCapacity) {
+                if (room.getTimetable().isFree(start, end)) {
+                    free.add(room);
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds every room of a type that seats at least {@code minCapacity}, whatever its timetable.
+     *
+     * @param type the required room type
+     * @param minCapacity the number of seats needed
+     * @return the matching rooms, smallest capacity first
+     */
+    public List<Room> findRooms(RoomType type, int minCapacity) {
+        List<Room> matching = new ArrayList<>();
+        for (List<Room> sameCapacity : roomsByTypeAndCapacity.get(type).tailMap(minCapacity).values()) {
+            matching.addAll(sameCapacity);
+        }
+        return matching;
+    }
+
+    /**
+     * Gets a room by the symbol of its ID, e.g. {@link Session#getRoomSymbol()}, with one array read.
+     *
+     * @param symbol a symbol from {@link Model.SymbolTable#ROOMS}
+     * @return the room, or {@code null} if there is none with that ID
+     */
+    public Room getBySymbol(int symbol) {
+        return roomsBySymbol.get(symbol);
     }
 
     public Room getById(String id) {
@@ -30,55 +111,66 @@ public class RoomRepository {
         return new ArrayList<>(rooms.values());
     }
 
-    /** Loads Room data from Rooms.csv. */
-    public void loadData() {
+    /** Loads Room data from Rooms.csv. Returns {@code false} if the file could not be read. */
+    public boolean loadData() {
         String filePath = "Resources/Rooms.csv";
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-
-            br.readLine(); // Skip header
-            String line;
+        try {
+            CsvReader csv = CsvReader.openResource(filePath);
+            csv.nextRecord(); // Skip header
 
-            while ((line = br.readLine()) != null) {
+            while (csv.nextRecord()) {
                 // ID, Capacity, Type (e.g., "KB1-001,100,CLASSROOM")
-                String[] data = line.split(",");
-                if (data.length != 3) continue;
+                if (csv.fieldCount() != 3) continue;
 
-                String id = data[0].trim();
-                String typeStr = data[2].trim().toUpperCase();
+                String id = csv.getString(0);
 
                 try {
-                    int capacity = Integer.parseInt(data[1].trim());
+                    int capacity = csv.getInt(1);
                     // Ensure the RoomType enum is correctly parsed (must be CLASSROOM or LAB)
-                    RoomType type = RoomType.valueOf(typeStr);
+                    RoomType type = csv.getEnum(2, RoomType.class);
 
                     Room room = new Room(id, capacity, type);
                     add(room);
                 } catch (NumberFormatException e) {
                     System.err.println("Skipping room " + id + ": Invalid capacity format.");
                 } catch (IllegalArgumentException e) {
-                    System.err.println("Skipping room " + id + ": Invalid RoomType '" + typeStr + "'.");
+                    System.err.println("Skipping room " + id + ": Invalid RoomType '" + csv.getString(2).toUpperCase() + "'.");
                 }
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
+            return false;
         }
     }
 
-    /** Saves all Room data to Rooms.csv using PrintWriter */
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
+    }
+
+    /** Saves all Room data to Rooms_out.csv, replacing the previous file atomically. */
     public void saveData() {
-        String filePath = "output/csv/Rooms_out.csv";
+        String filePath = OUTPUT_PATH;
+        long saving = changes.current();
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write CSV header
-            pw.println("ID,Capacity,Type");
+            writer.writeLine("ID,Capacity,Type");
 
             // Write each room
             for (Room room : rooms.values()) {
-                pw.println(room.getId() + "," + room.getCapacity() + "," + room.getType().name());
+                writer.writeLine(room.getId() + "," + room.getCapacity() + "," + room.getType().name());
             }
 
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Rooms saved successfully to " + filePath);
 
         } catch (IOException e) {
@@ -0,0 +1,57 @@
+package Repositories;
+
+import Model.Session;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One session at a time during {@link SessionRepository#scan}. The cursor is reused for every session
+ * of the scan and reads its fields in place, so a scan allocates nothing per session; with the columnar
+ * store the fields come straight from primitive arrays swept in order.
+ * <p>
+ * A cursor is only valid inside the scan that passed it. Entity IDs are given as
+ * {@link Model.SymbolTable} symbols.
+ */
+public interface SessionCursor {
+
+    String getSessionID();
+
+    int getModuleSymbol();
+
+    int getTypeSymbol();
+
+    int getLecturerSymbol();
+
+    int getRoomSymbol();
+
+    /**
+     * Gets the number of student groups attending the current session.
+     *
+     * @return the group count
+     */
+    int getGroupCount();
+
+    /**
+     * Gets the symbol of one of the current session's groups.
+     *
+     * @param index the position of the group, below {@link #getGroupCount()}
+     * @return the group symbol
+     */
+    int getGroupSymbol(int index);
+
+    DayOfWeek getDay();
+
+    LocalTime getStartTime();
+
+    int getStartMinuteOfWeek();
+
+    int getDuration();
+
+    /**
+     * Gets the current session as the object that was added to the repository, or as an equal copy
+     * when the store keeps sessions off the heap.
+     *
+     * @return the session
+     */
+    Session getSession();
+}
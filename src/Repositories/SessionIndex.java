@@ -0,0 +1,94 @@
+package Repositories;
+
+import Model.Session;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Secondary indexes of a {@link SessionRepository}: for each module, lecturer, room, student group and
+ * day, the IDs of the sessions that have it (a posting list). Entities are looked up by their
+ * {@link Model.SymbolTable} symbol, so each index is an array of posting lists.
+ * <p>
+ * Not thread-safe on its own; the repository updates it together with its store under one lock.
+ */
+final class SessionIndex {
+    private final List<Set<String>> byModule = new ArrayList<>();
+    private final List<Set<String>> byLecturer = new ArrayList<>();
+    private final List<Set<String>> byRoom = new ArrayList<>();
+    private final List<Set<String>> byGroup = new ArrayList<>();
+    private final List<Set<String>> byDay = new ArrayList<>();
+
+    /** Adds a session to the posting list of each of its keys. */
+    void add(Session session) {
+        String id = session.getSessionID();
+        postingsFor(byModule, session.getModuleSymbol()).add(id);
+        postingsFor(byLecturer, session.getLecturerSymbol()).add(id);
+        postingsFor(byRoom, session.getRoomSymbol()).add(id);
+        for (int group : session.getStudentGroupSymbols()) {
+            postingsFor(byGroup, group).add(id);
+        }
+        postingsFor(byDay, session.getDay().getValue()).add(id);
+    }
+
+    /** Removes a session, as it was added, from the posting list of each of its keys. */
+    void remove(Session session) {
+        String id = session.getSessionID();
+        postingsFor(byModule, session.getModuleSymbol()).remove(id);
+        postingsFor(byLecturer, session.getLecturerSymbol()).remove(id);
+        postingsFor(byRoom, session.getRoomSymbol()).remove(id);
+        for (int group : session.getStudentGroupSymbols()) {
+            postingsFor(byGroup, group).remove(id);
+        }
+        postingsFor(byDay, session.getDay().getValue()).remove(id);
+    }
+
+    /**
+     * Gets the posting list of an entity key.
+     *
+     * @param kind one of the key kinds of {@link SessionQuery}
+     * @param symbol the entity's symbol
+     * @return the IDs of the sessions with that key, empty if there are none; not to be modified
+     */
+    Set<String> postings(int kind, int symbol) {
+        switch (kind) {
+            case SessionQuery.MODULE:
+                return postings(byModule, symbol);
+            case SessionQuery.LECTURER:
+                return postings(byLecturer, symbol);
+            case SessionQuery.ROOM:
+                return postings(byRoom, symbol);
+            case SessionQuery.GROUP:
+                return postings(byGroup, symbol);
+            default:
+                throw new IllegalArgumentException("Unknown key kind " + kind);
+        }
+    }
+
+    /** Gets the posting list of a day; not to be modified. */
+    Set<String> day(DayOfWeek day) {
+        return postings(byDay, day.getValue());
+    }
+
+    /** Returns the posting list of a key, or an empty set if no session has it; never {@code null}. */
+    private static Set<String> postings(List<Set<String>> index, int key) {
+        Set<String> postings = key >= 0 && key < index.size() ? index.get(key) : null;
+        return postings != null ? postings : Collections.emptySet();
+    }
+
+    /** Returns the posting list of a key, creating it if needed. */
+    private static Set<String> postingsFor(List<Set<String>> index, int key) {
+        while (index.size() <= key) {
+            index.add(null);
+        }
+        Set<String> postings = index.get(key);
+        if (postings == null) {
+            postings = new HashSet<>();
+            index.set(key, postings);
+        }
+        return postings;
+    }
+}
@@ -0,0 +1,66 @@
+package Repositories;
+
+import Model.SymbolTable;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria for {@link SessionRepository#find}: the sessions matching every key that is set, such as
+ * all sessions taught by one lecturer in one room. Keys left unset match anything. An ID that no
+ * session has ever used matches nothing.
+ */
+public class SessionQuery {
+    private final List<int[]> keys = new ArrayList<>(); // {kind, symbol} pairs
+    private DayOfWeek day;
+
+    static final int MODULE = 0;
+    static final int LECTURER = 1;
+    static final int ROOM = 2;
+    static final int GROUP = 3;
+
+    /** Restricts the query to sessions of a module. */
+    public SessionQuery module(String moduleCode) {
+        keys.add(new int[] {MODULE, SymbolTable.MODULES.find(moduleCode)});
+        return this;
+    }
+
+    /** Restricts the query to sessions taught by a lecturer. */
+    public SessionQuery lecturer(String lecturerID) {
+        keys.add(new int[] {LECTURER, SymbolTable.USERS.find(lecturerID)});
+        return this;
+    }
+
+    /** Restricts the query to sessions held in a room. */
+    public SessionQuery room(String roomID) {
+        keys.add(new int[] {ROOM, SymbolTable.ROOMS.find(roomID)});
+        return this;
+    }
+
+    /** Restricts the query to sessions attended by a student group; may be given for several groups. */
+    public SessionQuery group(String groupID) {
+        keys.add(new int[] {GROUP, SymbolTable.GROUPS.find(groupID)});
+        return this;
+    }
+
+    /** Restricts the query to sessions on a day. */
+    public SessionQuery day(DayOfWeek day) {
+        this.day = day;
+        return this;
+    }
+
+    /** Returns the {kind, symbol} pairs of the entity keys set, in the order given. */
+    List<int[]> getKeys() {
+        return keys;
+    }
+
+    /** Returns the day set, or {@code null}. */
+    DayOfWeek getDay() {
+        return day;
+    }
+
+    /** Checks whether no key is set, so the query matches every session. */
+    boolean isEmpty() {
+        return keys.isEmpty() && day == null;
+    }
+}
@@ -1,24 +1,77 @@
 package Repositories;
 
 import Model.*;
-import Model.Module;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.DayOfWeek; // Required for Day enum
 import java.time.LocalTime; // Required for Time parsing
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Manages the storage and retrieval of Session objects.
+ * <p>
+ * Sessions are held in the {@link SessionStore} selected with the {@code timetable.sessions} system
+ * property; {@link #scan} sweeps them without going through their objects when the store is columnar.
+ * Secondary indexes by module, lecturer, room, group and day are kept up to date on every add and
+ * remove, so {@link #find} answers reporting queries without reading every session. They keep every
+ * session ID on the heap; a deployment using the off-heap store for a very large archive can start
+ * the JVM with {@code -Dtimetable.sessions.index=false}, and {@link #find} then scans instead.
  */
 public class SessionRepository {
-    private Map<String, Session> sessions;
+    /** Size of the chunks a session file is cut into for parallel parsing. */
+    static final int LOAD_CHUNK_BYTES = 1 << 20;
+    /** Most chunks read ahead of the commit stage. */
+    static final int LOAD_CHUNKS_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors() + 1;
+
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/Sessions_out.csv";
+
+    /** System property that turns the secondary indexes off when set to {@code false}. */
+    public static final String INDEX_PROPERTY = "timetable.sessions.index";
+
+    /** Orders query results through the week, then by ID. */
+    private static final Comparator<Session> WEEK_ORDER =
+            Comparator.comparingInt(Session::getStartMinuteOfWeek).thenComparing(Session::getSessionID);
+
+    private SessionStore sessions;
+    private final SessionIndex index; // null when the indexes are turned off
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock(); // Keeps the index in step with the store
+    private final ChangeTracker changes = new ChangeTracker();
 
     public SessionRepository() {
-        this.sessions = new HashMap<>();
+        this.sessions = SessionStore.create();
+        this.index = Boolean.parseBoolean(System.getProperty(INDEX_PROPERTY, "true")) ? new SessionIndex() : null;
     }
 
     public void add(Session session) {
-        sessions.put(session.getSessionID(), session);
+        if (index == null) {
+            sessions.add(session);
+            changes.changed();
+            return;
+        }
+        indexLock.writeLock().lock();
+        try {
+            Session replaced = sessions.get(session.getSessionID());
+            sessions.add(session);
+            if (replaced != null) {
+                index.remove(replaced);
+            }
+            index.add(session);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+        changes.changed();
     }
 
     public Session getById(String id) {
@@ -26,150 +79,399 @@ public class SessionRepository {
     }
 
     public List<Session> getAll() {
-        return new ArrayList<>(sessions.values());
+        return sessions.all();
+    }
+
+    public int size() {
+        return sessions.size();
     }
 
     public void remove(String id) {
-        sessions.remove(id);
+        if (index == null) {
+            if (sessions.remove(id)) {
+                changes.changed();
+            }
+            return;
+        }
+        indexLock.writeLock().lock();
+        try {
+            Session removed = sessions.get(id);
+            if (removed == null || !sessions.remove(id)) {
+                return;
+            }
+            index.remove(removed);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+        changes.changed();
     }
 
-    /** * Loads Session data from Sessions.csv and schedules them into all relevant Timetables.
-     */
-    public void loadData(UserRepository userRepo, RoomRepository roomRepo,
-                         StudentGroupRepository groupRepo, ModuleRepository moduleRepo) {
-        String filePath = "Resources/Sessions.csv";
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-
-            br.readLine(); // Skip header
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                // ID, Module_Code, Type, Lecturer_ID, Room_ID, Group_IDs, Day, Start_Time, Duration_Minutes
-                String[] data = line.split(",", -1);
-                if (data.length != 9) continue;
-
-                String sessionId = data[0].trim();
-                String moduleCode = data[1].trim();
-                String sessionType = data[2].trim();
-                String lecturerId = data[3].trim();
-                String roomId = data[4].trim();
-
-                List<String> groupIds = new ArrayList<>();
-                if (!data[5].trim().isEmpty()) {
-                    // Parse pipe-separated Group IDs
-                    groupIds = Arrays.asList(data[5].split("\\|"));
-                }
+    public List<Session> getByModule(String moduleCode) {
+        return find(new SessionQuery().module(moduleCode));
+    }
 
-                try {
-                    DayOfWeek day = DayOfWeek.valueOf(data[6].trim().toUpperCase());
-                    LocalTime startTime = LocalTime.parse(data[7].trim());
-                    int duration = Integer.parseInt(data[8].trim());
+    public List<Session> getByLecturer(String lecturerID) {
+        return find(new SessionQuery().lecturer(lecturerID));
+    }
 
-                    Module m = moduleRepo.getByCode(moduleCode);
-                    String moduleName = (m != null) ? m.getName() : "Unknown Module";
+    public List<Session> getByRoom(String roomID) {
+        return find(new SessionQuery().room(roomID));
+    }
 
-                    Session session = new Session(sessionId, moduleCode, sessionType, lecturerId,
-                            roomId, groupIds, day, startTime, duration);
+    public List<Session> getByGroup(String groupID) {
+        return find(new SessionQuery().group(groupID));
+    }
 
-                    // --- CRITICAL STEP: SCHEDULE THE SESSION ---
+    public List<Session> getByDay(DayOfWeek day) {
+        return find(new SessionQuery().day(day));
+    }
 
-                    // 1. Get entities
-                    Room room = roomRepo.getById(roomId);
-                    User user = userRepo.getById(lecturerId);
+    /**
+     * Finds the sessions matching every key of a query, using the secondary indexes. The posting lists of
+     * the keys are intersected smallest first: the IDs of the shortest list are checked against the others,
+     * so the cost follows the most selective key rather than the number of sessions. With the indexes
+     * turned off, every session is scanned instead.
+     *
+     * @param query the keys to match; an empty query matches every session
+     * @return the matching sessions, ordered by start time through the week and then by ID
+     */
+    public List<Session> find(SessionQuery query) {
+        List<Session> found = new ArrayList<>();
+        if (index == null) {
+            sessions.scan(cursor -> {
+                if (matches(cursor, query)) {
+                    found.add(cursor.getSession());
+                }
+            });
+            found.sort(WEEK_ORDER);
+            return found;
+        }
+        indexLock.readLock().lock();
+        try {
+            if (query.isEmpty()) {
+                found.addAll(sessions.all());
+            } else {
+                List<Set<String>> postings = new ArrayList<>();
+                for (int[] key : query.getKeys()) {
+                    postings.add(index.postings(key[0], key[1]));
+                }
+                if (query.getDay() != null) {
+                    postings.add(index.day(query.getDay()));
+                }
+                postings.sort(Comparator.comparingInt(Set::size));
 
-                    if (room == null) {
-                        System.err.println("Skipping session " + sessionId + ": Room " + roomId + " not found.");
-                        continue;
+                Set<String> smallest = postings.get(0);
+                for (String id : smallest) {
+                    boolean inAll = true;
+                    for (int i = 1; i < postings.size() && inAll; i++) {
+                        inAll = postings.get(i).contains(id);
                     }
-                    if (user == null || !(user instanceof Lecturer)) {
-                        System.err.println("Skipping session " + sessionId + ": Lecturer " + lecturerId + " not found or is not a Lecturer.");
-                        continue;
+                    if (inAll) {
+                        found.add(sessions.get(id));
                     }
-                    Lecturer lecturer = (Lecturer) user;
-
-                    // 2. Conflict Check and Commit (Sequential, with rollback logic)
+                }
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        found.sort(WEEK_ORDER);
+        return found;
+    }
 
-                    // Add to Room's timetable
-                    if (!room.getTimetable().addSession(session)) {
-                        System.err.println("Conflict detected: Room " + roomId + " is busy for session " + sessionId);
-                        continue;
+    /** Checks a session against every key of a query, for {@link #find} without indexes. */
+    private static boolean matches(SessionCursor session, SessionQuery query) {
+        if (query.getDay() != null && session.getDay() != query.getDay()) {
+            return false;
+        }
+        for (int[] key : query.getKeys()) {
+            int symbol = key[1];
+            switch (key[0]) {
+                case SessionQuery.MODULE:
+                    if (session.getModuleSymbol() != symbol) return false;
+                    break;
+                case SessionQuery.LECTURER:
+                    if (session.getLecturerSymbol() != symbol) return false;
+                    break;
+                case SessionQuery.ROOM:
+                    if (session.getRoomSymbol() != symbol) return false;
+                    break;
+                default:
+                    boolean attends = false;
+                    for (int i = 0; i < session.getGroupCount() && !attends; i++) {
+                        attends = session.getGroupSymbol(i) == symbol;
                     }
+                    if (!attends) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visits every session through one reused cursor, for reports and exports that read all sessions.
+     * The visitor must not add or remove sessions.
+     *
+     * @param visitor called once per session
+     */
+    public void scan(Consumer<SessionCursor> visitor) {
+        sessions.scan(visitor);
+    }
+
+    /** * Loads Session data from Sessions.csv and schedules them into all relevant Timetables.
+     * Parsing runs on the common fork/join pool, see {@link #loadData(ReadableByteChannel, UserRepository,
+     * RoomRepository, StudentGroupRepository, ExecutorService)}.
+     * Returns {@code false} if the file could not be read.
+     */
+    public boolean loadData(UserRepository userRepo, RoomRepository roomRepo,
+                            StudentGroupRepository groupRepo, ModuleRepository moduleRepo) {
+        String filePath = "Resources/Sessions.csv";
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath)) {
+            if (is == null) {
+                throw new FileNotFoundException(filePath + " not found on the classpath");
+            }
+            loadData(Channels.newChannel(is), userRepo, roomRepo, groupRepo, ForkJoinPool.commonPool());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
+            return false;
+        }
+    }
 
-                    // Add to Lecturer's timetable
-                    if (!lecturer.getTimetable().addSession(session)) {
-                        System.err.println("Conflict detected: Lecturer " + lecturerId + " is busy for session " + sessionId);
-                        room.getTimetable().removeSession(sessionId); // Rollback
+    /**
+     * Loads sessions from a CSV stream in the Sessions.csv format, e.g. a large historical export.
+     * <p>
+     * The stream is read in chunks of {@link #LOAD_CHUNK_BYTES} cut at record boundaries. Chunks are
+     * parsed, and their rooms, lecturers and groups looked up, in parallel on {@code executor}, while
+     * the calling thread commits the parsed sessions to the timetables one at a time in file order.
+     * Conflicts are therefore resolved, and messages printed, exactly as a sequential load would.
+     * At most {@link #LOAD_CHUNKS_IN_FLIGHT} chunks are held at once, so memory use does not grow
+     * with the size of the file.
+     *
+     * @param channel the CSV text, starting with the header line
+     * @param executor runs the parsing; the calling thread does all commits
+     * @throws IOException if the channel cannot be read
+     */
+    public void loadData(ReadableByteChannel channel, UserRepository userRepo, RoomRepository roomRepo,
+                         StudentGroupRepository groupRepo, ExecutorService executor) throws IOException {
+        Deque<Future<List<ParsedSession>>> inFlight = new ArrayDeque<>();
+        ByteBuffer buffer = ByteBuffer.allocate(LOAD_CHUNK_BYTES);
+        boolean header = true;
+        boolean endOfStream = false;
+
+        try {
+            while (!endOfStream || !inFlight.isEmpty()) {
+                // Stage 1: read ahead and hand chunks to the parsers until the window is full
+                while (!endOfStream && inFlight.size() < LOAD_CHUNKS_IN_FLIGHT) {
+                    while (buffer.hasRemaining() && !endOfStream) {
+                        endOfStream = channel.read(buffer) < 0;
+                    }
+                    buffer.flip();
+                    int end = endOfStream ? buffer.limit() : CsvReader.lastRecordEnd(buffer);
+                    if (end == 0 && !endOfStream) {
+                        // A single record longer than the buffer: grow it and read on
+                        buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
                         continue;
                     }
+                    ByteBuffer chunk = buffer.duplicate().position(0).limit(end).slice();
+                    boolean skipHeader = header;
+                    inFlight.add(executor.submit(() -> parseChunk(chunk, skipHeader, userRepo, roomRepo, groupRepo)));
+                    header = false;
+
+                    // The unparsed tail starts the next chunk's buffer
+                    ByteBuffer next = ByteBuffer.allocate(Math.max(LOAD_CHUNK_BYTES, buffer.limit() - end + 1));
+                    next.put(buffer.position(end));
+                    buffer = next;
+                }
 
-                    // Add to all Student Groups' timetables
-                    boolean groupConflict = false;
-                    List<StudentGroup> committedGroups = new ArrayList<>();
-                    for (String groupId : groupIds) {
-                        StudentGroup group = groupRepo.getById(groupId);
-                        if (group == null) {
-                            System.err.println("Warning: Group " + groupId + " not found for session " + sessionId);
-                            continue;
-                        }
-                        if (!group.getTimetable().addSession(session)) {
-                            System.err.println("Conflict detected: Group " + groupId + " has a clash for session " + sessionId);
-                            groupConflict = true;
-                            break;
-                        }
-                        committedGroups.add(group);
+                // Stage 2: commit the oldest chunk on this thread, in file order
+                if (!inFlight.isEmpty()) {
+                    for (ParsedSession parsed : inFlight.poll().get()) {
+                        commit(parsed);
                     }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading sessions");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse sessions: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            for (Future<List<ParsedSession>> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+    }
 
-                    if (groupConflict) {
-                        // Rollback all successful additions
-                        room.getTimetable().removeSession(sessionId);
-                        lecturer.getTimetable().removeSession(sessionId);
-                        for (StudentGroup group : committedGroups) {
-                            group.getTimetable().removeSession(sessionId);
-                        }
-                        continue; // Skip adding the session to the repository
-                    }
+    /** Parses one chunk of Sessions.csv and resolves each session's room, lecturer and groups. */
+    private static List<ParsedSession> parseChunk(ByteBuffer chunk, boolean skipHeader, UserRepository userRepo,
+                                                  RoomRepository roomRepo, StudentGroupRepository groupRepo) {
+        List<ParsedSession> parsed = new ArrayList<>();
+        CsvReader csv = new CsvReader(chunk);
+        if (skipHeader) {
+            csv.nextRecord(); // Skip header
+        }
 
-                    // 3. Add to the repository itself (Only if successfully scheduled everywhere)
-                    add(session);
+        while (csv.nextRecord()) {
+            // ID, Module_Code, Type, Lecturer_ID, Room_ID, Group_IDs, Day, Start_Time, Duration_Minutes
+            if (csv.fieldCount() != 9) continue;
 
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Skipping session " + sessionId + ": Invalid time/day/duration format: " + e.getMessage());
-                } catch (Exception e) {
-                    System.err.println("An unexpected error occurred while loading session " + sessionId + ": " + e.getMessage());
+            String sessionId = csv.getString(0);
+            String moduleCode = csv.getString(1);
+            String sessionType = csv.getString(2);
+            String lecturerId = csv.getString(3);
+            String roomId = csv.getString(4);
+
+            // Parse pipe-separated Group IDs
+            List<String> groupIds = csv.getList(5, '|');
+
+            try {
+                DayOfWeek day = csv.getEnum(6, DayOfWeek.class);
+                LocalTime startTime = csv.getTime(7);
+                int duration = csv.getInt(8);
+
+                Session session = new Session(sessionId, moduleCode, sessionType, lecturerId,
+                        roomId, groupIds, day, startTime, duration);
+
+                // Resolve entities; lookups only read the repositories, so chunks can do this in parallel
+                List<StudentGroup> groups = new ArrayList<>(groupIds.size());
+                for (int groupSymbol : session.getStudentGroupSymbols()) {
+                    groups.add(groupRepo.getBySymbol(groupSymbol));
                 }
+                parsed.add(new ParsedSession(session, roomRepo.getBySymbol(session.getRoomSymbol()),
+                        userRepo.getBySymbol(session.getLecturerSymbol()), groups, null));
+
+            } catch (IllegalArgumentException e) {
+                parsed.add(new ParsedSession(null, null, null, null,
+                        "Skipping session " + sessionId + ": Invalid time/day/duration format: " + e.getMessage()));
+            } catch (Exception e) {
+                parsed.add(new ParsedSession(null, null, null, null,
+                        "An unexpected error occurred while loading session " + sessionId + ": " + e.getMessage()));
             }
-        } catch (Exception e) {
-            System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
         }
+        return parsed;
+    }
+
+    /** Schedules a parsed session into all of its Timetables, or reports why it cannot be. */
+    private void commit(ParsedSession parsed) {
+        if (parsed.error != null) {
+            System.err.println(parsed.error);
+            return;
+        }
+        Session session = parsed.session;
+        String sessionId = session.getSessionID();
+
+        // --- CRITICAL STEP: SCHEDULE THE SESSION ---
+
+        // 1. Check entities
+        Room room = parsed.room;
+        User user = parsed.lecturer;
+
+        if (room == null) {
+            System.err.println("Skipping session " + sessionId + ": Room " + session.getRoomID() + " not found.");
+            return;
+        }
+        if (user == null || !(user instanceof Lecturer)) {
+            System.err.println("Skipping session " + sessionId + ": Lecturer " + session.getLecturerID() + " not found or is not a Lecturer.");
+            return;
+        }
+        Lecturer lecturer = (Lecturer) user;
+
+        // 2. Conflict Check and Commit (Sequential, with rollback logic)
+
+        // Add to Room's timetable
+        if (!room.getTimetable().addSession(session)) {
+            System.err.println("Conflict detected: Room " + session.getRoomID() + " is busy for session " + sessionId);
+            return;
+        }
+
+        // Add to Lecturer's timetable
+        if (!lecturer.getTimetable().addSession(session)) {
+            System.err.println("Conflict detected: Lecturer " + session.getLecturerID() + " is busy for session " + sessionId);
+            room.getTimetable().removeSession(sessionId); // Rollback
+            return;
+        }
+
+        // Add to all Student Groups' timetables
+        boolean groupConflict = false;
+        List<StudentGroup> committedGroups = new ArrayList<>();
+        List<String> groupIds = session.getStudentGroupIDs();
+        for (int i = 0; i < groupIds.size(); i++) {
+            StudentGroup group = parsed.groups.get(i);
+            if (group == null) {
+                System.err.println("Warning: Group " + groupIds.get(i) + " not found for session " + sessionId);
+                continue;
+            }
+            if (!group.getTimetable().addSession(session)) {
+                System.err.println("Conflict detected: Group " + groupIds.get(i) + " has a clash for session " + sessionId);
+                groupConflict = true;
+                break;
+            }
+            committedGroups.add(group);
+        }
+
+        if (groupConflict) {
+            // Rollback all successful additions
+            room.getTimetable().removeSession(sessionId);
+            lecturer.getTimetable().removeSession(sessionId);
+            for (StudentGroup group : committedGroups) {
+                group.getTimetable().removeSession(sessionId);
+            }
+            return; // Skip adding the session to the repository
+        }
+
+        // 3. Add to the repository itself (Only if successfully scheduled everywhere)
+        add(session);
+    }
+
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
     }
 
-    /** Saves all Session data to Sessions.csv using PrintWriter */
+    /** Saves all Session data to Sessions_out.csv, replacing the previous file atomically. */
     public void saveData() {
-        String filePath = "output/csv/Sessions_out.csv";
+        String filePath = OUTPUT_PATH;
+        long saving = changes.current();
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write CSV header
-            pw.println("ID,Module_Code,Type,Lecturer_ID,Room_ID,Group_IDs,Day,Start_Time,Duration_Minutes");
-
-            for (Session session : sessions.values()) {
-                String groupIds = String.join("|", session.getStudentGroupIDs());
-
-                String line = String.join(",",
-                        session.getSessionID(),
-                        session.getModuleCode(),
-                        session.getSessionType(),
-                        session.getLecturerID(),
-                        session.getRoomID(),
-                        groupIds,
-                        session.getDay().toString(),
-                        session.getStartTime().toString(),
-                        String.valueOf(session.getSessionDuration())
-                );
-
-                pw.println(line);
+            writer.writeLine("ID,Module_Code,Type,Lecturer_ID,Room_ID,Group_IDs,Day,Start_Time,Duration_Minutes");
+
+            StringBuilder line = new StringBuilder(128);
+            try {
+                sessions.scan(session -> {
+                    line.setLength(0);
+                    line.append(session.getSessionID()).append(',')
+                            .append(SymbolTable.MODULES.name(session.getModuleSymbol())).append(',')
+                            .append(SymbolTable.SESSION_TYPES.name(session.getTypeSymbol())).append(',')
+                            .append(SymbolTable.USERS.name(session.getLecturerSymbol())).append(',')
+                            .append(SymbolTable.ROOMS.name(session.getRoomSymbol())).append(',');
+                    for (int i = 0; i < session.getGroupCount(); i++) {
+                        if (i > 0) {
+                            line.append('|');
+                        }
+                        line.append(SymbolTable.GROUPS.name(session.getGroupSymbol(i)));
+                    }
+                    line.append(',').append(session.getDay())
+                            .append(',').append(session.getStartTime())
+                            .append(',').append(session.getDuration());
+                    try {
+                        writer.writeLine(line.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
+
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Sessions saved to " + filePath);
 
         } catch (IOException e) {
@@ -177,5 +479,20 @@ public class SessionRepository {
         }
     }
 
+    /** A parsed row of Sessions.csv with its entities resolved, or the reason it could not be parsed. */
+    private static class ParsedSession {
+        final Session session;
+        final Room room;
+        final User lecturer;
+        final List<StudentGroup> groups;
+        final String error;
+
+        ParsedSession(Session session, Room room, User lecturer, List<StudentGroup> groups, String error) {
+            this.session = session;
+            this.room = room;
+            this.lecturer = lecturer;
+            this.groups = groups;
+            this.error = error;
+        }
+    }
 }
-
@@ -0,0 +1,63 @@
+package Repositories;
+
+import Model.Session;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Holds the sessions of a {@link SessionRepository}. Implementations differ only in layout: one
+ * {@link Session} object per entry in a hash map, primitive columns that make whole-timetable scans
+ * sequential sweeps, or fixed-width records outside the Java heap. The first two return from {@link #get}
+ * the same object that was added; the off-heap store returns an equal copy, so callers compare sessions
+ * with {@link Session#sameAs} rather than by identity.
+ * <p>
+ * The implementation is chosen per deployment with the {@code timetable.sessions} system property:
+ * {@code map} (default), {@code columnar} or {@code offheap}.
+ */
+interface SessionStore {
+
+    /** System property used to select the session store implementation. */
+    String PROPERTY = "timetable.sessions";
+
+    /** Adds a session, replacing any session with the same ID. */
+    void add(Session session);
+
+    /** Returns the session with an ID, or {@code null} if there is none. */
+    Session get(String sessionID);
+
+    /** Removes the session with an ID, returning whether there was one. */
+    boolean remove(String sessionID);
+
+    /** Returns every session, in the store's iteration order. */
+    List<Session> all();
+
+    /** Returns the number of sessions. */
+    int size();
+
+    /**
+     * Visits every session with one reused cursor. The visitor must not change the store.
+     *
+     * @param visitor called once per session
+     */
+    void scan(Consumer<SessionCursor> visitor);
+
+    /**
+     * Creates the session store configured for this deployment.
+     *
+     * @return a new, empty store
+     * @throws IllegalArgumentException if the configured implementation name is unknown
+     */
+    static SessionStore create() {
+        String type = System.getProperty(PROPERTY, "map").trim().toLowerCase();
+        switch (type) {
+            case "map":
+                return new MapSessionStore();
+            case "columnar":
+                return new ColumnarSessionStore();
+            case "offheap":
+                return new OffHeapSessionStore();
+            default:
+                throw new IllegalArgumentException("Unknown " + PROPERTY + " '" + type + "' (expected map, columnar or offheap).");
+        }
+    }
+}
@@ -3,9 +3,10 @@ package Repositories;
 import Model.StudentGroup;
 import Model.Programme; // Required for ProgrammeRepo parameter (for dependency)
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,14 +14,31 @@ import java.util.Map;
  * Manages the storage and retrieval of StudentGroup objects.
  */
 public class StudentGroupRepository {
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/StudentGroups_out.csv";
+
     private Map<String, StudentGroup> groups;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final SymbolIndex<StudentGroup> groupsBySymbol = new SymbolIndex<>();
 
     public StudentGroupRepository() {
-        this.groups = new HashMap<>();
+        this.groups = new ConcurrentHashMap<>();
     }
 
-    public void add(StudentGroup group) {
+    public synchronized void add(StudentGroup group) {
         groups.put(group.getGroupId(), group);
+        groupsBySymbol.put(group.getSymbol(), group);
+        changes.changed();
+    }
+
+    /**
+     * Gets a group by the symbol of its ID, e.g. from {@link Model.Session#getStudentGroupSymbols()}, with one array read.
+     *
+     * @param symbol a symbol from {@link Model.SymbolTable#GROUPS}
+     * @return the group, or {@code null} if there is none with that ID
+     */
+    public StudentGroup getBySymbol(int symbol) {
+        return groupsBySymbol.get(symbol);
     }
 
     public StudentGroup getById(String id) {
@@ -34,31 +52,26 @@ public class StudentGroupRepository {
     /** * Loads StudentGroup data from StudentGroups.csv.
      * ProgrammeRepository is passed for potential future linking/validation,
      * but not strictly required for the StudentGroup constructor.
+     * Returns {@code false} if the file could not be read.
      */
-    public void loadData(ProgrammeRepository programmeRepo) {
+    public boolean loadData(ProgrammeRepository programmeRepo) {
         String filePath = "Resources/StudentGroups.csv";
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-
-            br.readLine(); // Skip header
-            String line;
+        try {
+            CsvReader csv = CsvReader.openResource(filePath);
+            csv.nextRecord(); // Skip header
 
-            while ((line = br.readLine()) != null) {
+            while (csv.nextRecord()) {
                 // ID, Programme_Code, Year, Student_IDs
-                String[] data = line.split(",", -1);
-                if (data.length != 4) continue;
+                if (csv.fieldCount() != 4) continue;
 
-                String id = data[0].trim();
-                String programmeCode = data[1].trim();
+                String id = csv.getString(0);
+                String programmeCode = csv.getString(1);
 
                 try {
-                    int year = Integer.parseInt(data[2].trim());
+                    int year = csv.getInt(2);
 
                     // Parse pipe-separated Student IDs
-                    List<String> studentIds = new ArrayList<>();
-                    if (!data[3].trim().isEmpty()) {
-                        studentIds = new ArrayList<>(Arrays.asList(data[3].split("\\|")));
-                    }
+                    List<String> studentIds = csv.getList(3, '|');
 
                     // A check that the programme exists (optional but recommended)
                     Programme p = programmeRepo.getById(programmeCode);
@@ -73,19 +86,32 @@ public class StudentGroupRepository {
                     System.err.println("Skipping group " + id + ": Invalid year format.");
                 }
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
+            return false;
         }
     }
 
-    /** Saves all StudentGroup data to StudentGroups.csv using PrintWriter */
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
+    }
+
+    /** Saves all StudentGroup data to StudentGroups_out.csv, replacing the previous file atomically. */
     public void saveData() {
-        String filePath = "output/csv/StudentGroups_out.csv";
+        String filePath = OUTPUT_PATH;
+        long saving = changes.current();
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write CSV header
-            pw.println("ID,Programme_Code,Year,Student_IDs");
+            writer.writeLine("ID,Programme_Code,Year,Student_IDs");
 
             // Write each group
             for (StudentGroup group : groups.values()) {
@@ -99,8 +125,11 @@ public class StudentGroupRepository {
                         studentIds
                 );
 
-                pw.println(line);
+                writer.writeLine(line);
             }
+
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Groups saved to " + filePath);
 
         } catch (IOException e) {
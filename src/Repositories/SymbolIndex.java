@@ -0,0 +1,44 @@
+package Repositories;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A repository's entities indexed by the {@link Model.SymbolTable} symbol of their ID, so a session
+ * can be joined to its room, lecturer or groups with an array read. Reads never lock; the array is
+ * replaced by a larger copy as symbols grow.
+ *
+ * @param <T> the entity type
+ */
+final class SymbolIndex<T> {
+    private volatile AtomicReferenceArray<T> entries = new AtomicReferenceArray<>(64);
+
+    /**
+     * Gets the entity with a symbol.
+     *
+     * @param symbol the symbol of its ID
+     * @return the entity, or {@code null} if none has been put under that symbol
+     */
+    T get(int symbol) {
+        AtomicReferenceArray<T> current = entries;
+        return symbol >= 0 && symbol < current.length() ? current.get(symbol) : null;
+    }
+
+    /**
+     * Puts an entity under its symbol, replacing any entity already there.
+     *
+     * @param symbol the symbol of its ID
+     * @param entity the entity, or {@code null} to remove it
+     */
+    synchronized void put(int symbol, T entity) {
+        AtomicReferenceArray<T> current = entries;
+        if (symbol >= current.length()) {
+            AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(Math.max(symbol + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            current = grown;
+            entries = grown;
+        }
+        current.set(symbol, entity);
+    }
+}
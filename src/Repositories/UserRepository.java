@@ -2,36 +2,164 @@ package Repositories;
 
 import Model.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 
 /**
  * Manages the storage and retrieval of User objects.
+ * <p>
+ * Users are indexed by ID and by email address. Emails are matched without regard to case, so the
+ * email index is keyed by the address in lower case and a login finds its user with one hash lookup.
+ * Passwords are held as slow {@link PasswordHash} hashes. Plain-text passwords from an older Users file
+ * are hashed in parallel in the background once the file is loaded, and {@link #saveData()} and the
+ * snapshot wait for that, so a password is never written in plain text. {@link #authenticate} remembers
+ * recent logins so that repeated logins at busy times do not each pay for the hash.
  */
 public class UserRepository {
+    /** Where {@link #saveData()} writes. */
+    private static final String OUTPUT_PATH = "output/csv/Users_out.csv";
+    /** Header of the Password column in a Users file whose passwords are hashes, as {@link #saveData()} writes. */
+    static final String HASHED_PASSWORD_COLUMN = "Password_Hash";
+
+    /** System property that turns the cache of recent logins off when set to {@code false}. */
+    public static final String LOGIN_CACHE_PROPERTY = "timetable.logins.cache";
+
     private Map<String, User> users;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final SymbolIndex<User> usersBySymbol = new SymbolIndex<>();
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>(); // Keyed by emailKey()
+    private final CredentialCache recentLogins; // null when turned off
+    private volatile CompletableFuture<Void> passwordHashing = CompletableFuture.completedFuture(null);
 
     public UserRepository() {
-        this.users = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.recentLogins = Boolean.parseBoolean(System.getProperty(LOGIN_CACHE_PROPERTY, "true")) ? new CredentialCache() : null;
     }
 
-    public void add(User user) {
-        users.put(user.getId(), user);
+    /**
+     * Adds a user, replacing any user with the same ID. If another user already has the same email
+     * address, that user keeps it for logging in and a warning is printed.
+     */
+    public synchronized void add(User user) {
+        User replaced = users.put(user.getId(), user);
+        usersBySymbol.put(user.getSymbol(), user);
+        if (replaced != null && replaced.getEmail() != null) {
+            usersByEmail.remove(emailKey(replaced.getEmail()), replaced);
+        }
+        if (user.getEmail() != null) {
+            User holder = usersByEmail.putIfAbsent(emailKey(user.getEmail()), user);
+            if (holder != null && holder != user) {
+                System.err.println("Warning: Email " + user.getEmail() + " is used by both " + holder.getId()
+                        + " and " + user.getId() + "; only " + holder.getId() + " can log in with it.");
+            }
+        }
+        changes.changed();
+    }
+
+    /**
+     * Gets a user by the symbol of its ID, e.g. from {@link Model.Session#getLecturerSymbol()}, with one array read.
+     *
+     * @param symbol a symbol from {@link Model.SymbolTable#USERS}
+     * @return the user, or {@code null} if there is none with that ID
+     */
+    public User getBySymbol(int symbol) {
+        return usersBySymbol.get(symbol);
     }
 
     public User getById(String id) {
         return users.get(id);
     }
 
+    /**
+     * Gets the user with an email address, ignoring case, with one hash lookup.
+     *
+     * @param email the address as typed at login
+     * @return the user, or {@code null} if no user has that address
+     */
     public User getByEmail(String email) {
-        for (User u : users.values()) {
-            if (u.getEmail().equalsIgnoreCase(email)) {
-                return u;
-            }
+        return email == null ? null : usersByEmail.get(emailKey(email));
+    }
+
+    /**
+     * Checks login credentials. A password verified for the same user within the last
+     * {@link CredentialCache#TTL_MILLIS} is accepted without hashing it again, unless
+     * {@link #LOGIN_CACHE_PROPERTY} turns that off; otherwise it is checked against the user's password,
+     * which costs one hash whether that is still in plain text or not. An unknown email is checked against
+     * a dummy hash, so it takes as long as a wrong password and does not reveal which emails exist.
+     *
+     * @param email the email address, in any case
+     * @param password the password as typed
+     * @return the user, or {@code null} if the email is unknown or the password is wrong
+     */
+    public User authenticate(String email, String password) {
+        User user = getByEmail(email);
+        if (user == null || password == null) {
+            PasswordHash.verify(password == null ? "" : password, UnknownUser.HASH);
+            return null;
+        }
+        if (recentLogins != null && recentLogins.isVerified(user, password)) {
+            return user;
+        }
+        boolean wasHashed = user.getPassword().isHashed();
+        if (!user.checkPassword(password)) {
+            return null;
         }
-        return null;
+        if (!wasHashed) {
+            changes.changed(); // The plain-text password was replaced by its hash, which the next save writes
+        }
+        if (recentLogins != null) {
+            recentLogins.verified(user, password);
+        }
+        return user;
+    }
+
+    /** Holds the dummy hash checked for unknown emails, made on first use. */
+    private static final class UnknownUser {
+        static final String HASH = PasswordHash.hash("");
+    }
+
+    /**
+     * Hashes every password still held in plain text, in parallel, and marks the repository changed if
+     * there were any, so the next save writes the hashes.
+     */
+    private void hashPlainTextPasswords() {
+        long hashed = users.values().parallelStream().filter(User::hashPassword).count();
+        if (hashed > 0) {
+            changes.changed();
+        }
+    }
+
+    /**
+     * Blocks until no user's password is held in plain text: waits for the hashing started by
+     * {@link #loadData}, then hashes any added in plain text since.
+     */
+    void awaitHashedPasswords() {
+        passwordHashing.join();
+        hashPlainTextPasswords();
+    }
+
+    /**
+     * Gets a user's password in the form it is saved in, which is always a hash.
+     *
+     * @throws IllegalStateException if the password is still plain text; call {@link #awaitHashedPasswords()} first
+     */
+    static String savedPassword(User user) {
+        Password password = user.getPassword();
+        if (!password.isHashed()) {
+            throw new IllegalStateException("Password of " + user.getId() + " has not been hashed");
+        }
+        return password.getStored();
+    }
+
+    /** Normalises an email address for the email index: surrounding spaces removed, in lower case. */
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 
     public List<User> getAll() {
@@ -40,26 +168,36 @@ public class UserRepository {
 
     /** * Loads User data from Users.csv.
      * Requires StudentGroupRepository to link Student objects to their groups.
+     * The header names the form of the fourth column: {@value #HASHED_PASSWORD_COLUMN}, as saved by
+     * {@link #saveData()}, holds hashes; any other name, such as {@code Password}, holds plain text, which
+     * is then hashed in the background. A row whose hash is malformed is skipped.
+     * Returns {@code false} if the file could not be read.
      */
-    public void loadData(StudentGroupRepository groupRepo) {
+    public boolean loadData(StudentGroupRepository groupRepo) {
         String filePath = "Resources/Users.csv";
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filePath);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-
-            br.readLine(); // Skip header
-            String line;
+        try {
+            CsvReader csv = CsvReader.openResource(filePath);
+            csv.nextRecord(); // Header, which says whether passwords are hashed
+            boolean hashed = csv.fieldCount() > 3 && HASHED_PASSWORD_COLUMN.equals(csv.getString(3));
 
-            while ((line = br.readLine()) != null) {
-                // ID, Name, Email, Password, Role, Group_ID
-                String[] data = line.split(",", -1);
-                if (data.length != 6) continue;
+            while (csv.nextRecord()) {
+                // ID, Name, Email, Password or Password_Hash, Role, Group_ID
+                if (csv.fieldCount() != 6) continue;
 
-                String id = data[0].trim();
-                String name = data[1].trim();
-                String email = data[2].trim();
-                String password = data[3].trim();
-                String role = data[4].trim();
-                String groupId = data[5].trim();
+                String id = csv.getString(0);
+                String name = csv.getString(1);
+                String email = csv.getString(2);
+                Password password;
+                if (!hashed) {
+                    password = Password.plainText(csv.getString(3));
+                } else if (PasswordHash.isHash(csv.getString(3))) {
+                    password = Password.hashed(csv.getString(3));
+                } else {
+                    System.err.println("Skipping user " + id + ": Invalid password hash.");
+                    continue;
+                }
+                String role = csv.getString(4);
+                String groupId = csv.getString(5);
 
                 User user = null;
 
@@ -87,19 +225,37 @@ public class UserRepository {
                     add(user);
                 }
             }
+            passwordHashing = CompletableFuture.runAsync(this::hashPlainTextPasswords);
+            return true;
         } catch (Exception e) {
             System.err.println("Error loading data from " + filePath + ": " + e.getMessage());
+            return false;
         }
     }
 
-    /** Saves all User data to Users_out.csv using PrintWriter */
+    /**
+     * Checks whether {@link #saveData()} has anything new to write: something was added or removed
+     * since the last save, or the output file does not exist.
+     *
+     * @return {@code true} if the output file is missing or out of date
+     */
+    public boolean isDirty() {
+        return changes.isDirty() || !Files.exists(Paths.get(OUTPUT_PATH));
+    }
+
+    /**
+     * Saves all User data to Users_out.csv, replacing the previous file atomically. Waits for any
+     * plain-text passwords to be hashed first.
+     */
     public void saveData() {
-        String filePath = "output/csv/Users_out.csv";
+        String filePath = OUTPUT_PATH;
+        awaitHashedPasswords();
+        long saving = changes.current();
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter writer = CsvWriter.create(Paths.get(filePath))) {
 
             // Write CSV header
-            pw.println("ID,Name,Email,Password,Role,Group_ID");
+            writer.writeLine("ID,Name,Email," + HASHED_PASSWORD_COLUMN + ",Role,Group_ID");
 
             for (User user : users.values()) {
                 // Determine group ID if Student, else leave empty
@@ -112,14 +268,18 @@ public class UserRepository {
                         user.getId(),
                         user.getName(),
                         user.getEmail(),
-                        user.getPassword(), // assuming password is stored in plain text; ideally hashed
+                        savedPassword(user),
                         user.getRole(),
                         groupId
                 );
 
-                pw.println(line);
+                writer.writeLine(line);
             }
+
+            writer.commit();
+            changes.saved(saving);
             System.out.println("Users saved to " + filePath);
+
         } catch (IOException e) {
             System.err.println("Error saving users to " + filePath + ": " + e.getMessage());
         }
@@ -0,0 +1,53 @@
+package Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-session results of {@link SchedulingService#scheduleAll}, in the order the sessions were given.
+ */
+public class BatchReport {
+    private final List<SchedulingResult> results;
+    private final boolean committed;
+
+    /**
+     * Constructs a report for a processed batch.
+     *
+     * @param results one result per session in the batch
+     * @param committed whether any session of the batch was committed
+     */
+    public BatchReport(List<SchedulingResult> results, boolean committed) {
+        this.results = results;
+        this.committed = committed;
+    }
+
+    public List<SchedulingResult> getResults() {
+        return results;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /** Returns the number of sessions committed to the timetables. */
+    public int getScheduledCount() {
+        int count = 0;
+        for (SchedulingResult result : results) {
+            if (result.isScheduled()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the results of sessions that were not scheduled. */
+    public List<SchedulingResult> getFailures() {
+        List<SchedulingResult> failures = new ArrayList<>();
+        for (SchedulingResult result : results) {
+            if (!result.isScheduled()) {
+                failures.add(result);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,44 @@
+package Service;
+
+import Model.Session;
+import java.util.List;
+
+/**
+ * Everything that prevents a session from being scheduled, as found by
+ * {@link SchedulingService#explainConflicts}: missing entities and every clash with booked sessions.
+ */
+public class ConflictReport {
+    private final Session session;
+    private final List<String> errors;
+    private final List<ScheduleConflict> conflicts;
+
+    /**
+     * Constructs a conflict report.
+     *
+     * @param session the session that was checked
+     * @param errors problems with the session itself, e.g. an unknown room or a duplicate ID
+     * @param conflicts clashes with sessions already booked for its room, lecturer or groups
+     */
+    public ConflictReport(Session session, List<String> errors, List<ScheduleConflict> conflicts) {
+        this.session = session;
+        this.errors = errors;
+        this.conflicts = conflicts;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public List<ScheduleConflict> getConflicts() {
+        return conflicts;
+    }
+
+    /** Returns {@code true} if nothing prevents the session from being scheduled. */
+    public boolean isSchedulable() {
+        return errors.isEmpty() && conflicts.isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * A start time at which every resource of a proposed session is free, as returned by
+ * {@link SchedulingService#findCommonFreeSlots}.
+ */
+public class FreeSlot {
+    private final DayOfWeek day;
+    private final LocalTime startTime;
+    private final int durationMinutes;
+    private final int adjacentSides;
+
+    /**
+     * Constructs a free slot.
+     *
+     * @param day the day of the slot
+     * @param startTime the start of the slot
+     * @param durationMinutes the length of the slot in minutes
+     * @param adjacentSides how many ends of the slot (0-2) touch an existing session of the lecturer or groups
+     */
+    public FreeSlot(DayOfWeek day, LocalTime startTime, int durationMinutes, int adjacentSides) {
+        this.day = day;
+        this.startTime = startTime;
+        this.durationMinutes = durationMinutes;
+        this.adjacentSides = adjacentSides;
+    }
+
+    public DayOfWeek getDay() {
+        return day;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    /** Returns how many ends of the slot follow on directly from the lecturer's or groups' other sessions. */
+    public int getAdjacentSides() {
+        return adjacentSides;
+    }
+
+    @Override
+    public String toString() {
+        return day + " at " + startTime + " [" + durationMinutes + " mins]";
+    }
+}
@@ -0,0 +1,43 @@
+package Service;
+
+import Model.Session;
+import java.util.List;
+
+/**
+ * Sessions produced by the {@link TimetableGenerator}, plus the demands it could not place.
+ */
+public class GenerationResult {
+    private final List<Session> sessions;
+    private final List<String> unplaced;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a generation result.
+     *
+     * @param sessions the generated, mutually conflict-free sessions
+     * @param unplaced descriptions of the teaching demands that could not be placed
+     * @param elapsedMillis wall time spent generating, in milliseconds
+     */
+    public GenerationResult(List<Session> sessions, List<String> unplaced, long elapsedMillis) {
+        this.sessions = sessions;
+        this.unplaced = unplaced;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+
+    public List<String> getUnplaced() {
+        return unplaced;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** Returns {@code true} if every teaching demand was placed. */
+    public boolean isComplete() {
+        return unplaced.isEmpty();
+    }
+}
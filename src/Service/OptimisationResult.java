@@ -0,0 +1,60 @@
+package Service;
+
+import Model.Session;
+import java.util.List;
+
+/**
+ * Outcome of a {@link TimetableOptimiser} run.
+ */
+public class OptimisationResult {
+    private final List<Session> sessions;
+    private final List<Session> changedSessions;
+    private final long initialCost;
+    private final long finalCost;
+    private final int acceptedMoves;
+    private final long iterations;
+
+    /**
+     * Constructs an optimisation result.
+     *
+     * @param sessions every session, with improved placements where they changed
+     * @param changedSessions only the sessions whose day, time or room changed
+     * @param initialCost soft cost of the timetable before optimising
+     * @param finalCost soft cost of the returned timetable
+     * @param acceptedMoves number of moves accepted by the annealing schedule
+     * @param iterations number of moves proposed
+     */
+    public OptimisationResult(List<Session> sessions, List<Session> changedSessions, long initialCost, long finalCost,
+                              int acceptedMoves, long iterations) {
+        this.sessions = sessions;
+        this.changedSessions = changedSessions;
+        this.initialCost = initialCost;
+        this.finalCost = finalCost;
+        this.acceptedMoves = acceptedMoves;
+        this.iterations = iterations;
+    }
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+
+    public List<Session> getChangedSessions() {
+        return changedSessions;
+    }
+
+    public long getInitialCost() {
+        return initialCost;
+    }
+
+    public long getFinalCost() {
+        return finalCost;
+    }
+
+    public int getAcceptedMoves() {
+        return acceptedMoves;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+}
@@ -0,0 +1,67 @@
+package Service;
+
+import Model.Session;
+import java.util.List;
+
+/**
+ * A rescheduling plan produced by the {@link Rescheduler} for a room or lecturer outage.
+ * The plan lives in a {@link ScheduleSandbox}; nothing changes in the live timetables until
+ * {@link ScheduleSandbox#merge()} is called on {@link #getScenario()}.
+ */
+public class RescheduleResult {
+    private final List<Session> affected;
+    private final List<Session> relocated;
+    private final List<Session> displaced;
+    private final List<Session> unplaced;
+    private final ScheduleSandbox scenario;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a rescheduling result.
+     *
+     * @param affected the sessions that overlapped the outage, as they were scheduled
+     * @param relocated the new versions of the affected sessions that could be moved
+     * @param displaced the new versions of other sessions moved to make room for them
+     * @param unplaced the affected sessions for which no slot was found
+     * @param scenario the scenario holding the plan
+     * @param elapsedMillis wall time spent planning, in milliseconds
+     */
+    public RescheduleResult(List<Session> affected, List<Session> relocated, List<Session> displaced,
+                            List<Session> unplaced, ScheduleSandbox scenario, long elapsedMillis) {
+        this.affected = affected;
+        this.relocated = relocated;
+        this.displaced = displaced;
+        this.unplaced = unplaced;
+        this.scenario = scenario;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Session> getAffected() {
+        return affected;
+    }
+
+    public List<Session> getRelocated() {
+        return relocated;
+    }
+
+    public List<Session> getDisplaced() {
+        return displaced;
+    }
+
+    public List<Session> getUnplaced() {
+        return unplaced;
+    }
+
+    public ScheduleSandbox getScenario() {
+        return scenario;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** Returns {@code true} if every affected session was given a new slot. */
+    public boolean isComplete() {
+        return unplaced.isEmpty();
+    }
+}
@@ -0,0 +1,359 @@
+package Service;
+
+import Model.*;
+import Model.Module;
+import Repositories.*;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans the repair of a timetable when a room or lecturer becomes unavailable for a window of the week.
+ * <p>
+ * The sessions overlapping the outage are found with one lookup in the resource's timetable and
+ * relocated one at a time, hardest first. Each goes to the cheapest feasible slot, where the cost of a
+ * slot is the distance in minutes from the original start, plus {@link #OTHER_DAY_COST},
+ * {@link #OTHER_ROOM_COST} or {@link #OTHER_LECTURER_COST} for changing the day, room or lecturer
+ * (another lecturer of the same module). Only if a session fits nowhere is one other session moved out
+ * of the way, and that session must then fit somewhere directly, so no change cascades further.
+ * <p>
+ * The plan is built in a {@link ScheduleSandbox} and returned for review; the live timetables are not
+ * changed until the caller merges it.
+ */
+public class Rescheduler {
+
+    /** Cost of moving a session to another day, on top of the change in start time. */
+    static final int OTHER_DAY_COST = Session.MINUTES_PER_DAY;
+    /** Cost of moving a session to another room. */
+    static final int OTHER_ROOM_COST = 10;
+    /** Cost of handing a session to another lecturer of its module. */
+    static final int OTHER_LECTURER_COST = 60;
+    /** Most slots tried for a session that only fits by moving another session out of the way. */
+    static final int MAX_DISPLACEMENT_TRIES = 32;
+
+    /** Sessions with more groups, then longer sessions, have fewer options and are placed first. */
+    static final Comparator<Session> HARDEST_FIRST = Comparator
+            .comparingInt((Session s) -> s.getStudentGroupIDs().size()).reversed()
+            .thenComparing(Comparator.comparingInt(Session::getSessionDuration).reversed())
+            .thenComparing(Session::getSessionID);
+
+    private SchedulingService schedulingService;
+    private RoomRepository roomRepo;
+    private ModuleRepository moduleRepo;
+    private UserRepository userRepo;
+
+    public Rescheduler(SchedulingService schedulingService, RoomRepository roomRepo, ModuleRepository moduleRepo,
+                       UserRepository userRepo) {
+        this.schedulingService = schedulingService;
+        this.roomRepo = roomRepo;
+        this.moduleRepo = moduleRepo;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Plans moving every session out of a room for a window of one day.
+     *
+     * @param roomID the room that is unavailable
+     * @param day the day of the outage
+     * @param from the start of the outage
+     * @param to the end of the outage (exclusive)
+     * @return the plan, to be merged or discarded by the caller
+     * @throws IllegalArgumentException if the room does not exist or the window is empty
+     */
+    public RescheduleResult rescheduleRoom(String roomID, DayOfWeek day, LocalTime from, LocalTime to) {
+        Room room = roomRepo.getById(roomID);
+        if (room == null) {
+            throw new IllegalArgumentException("Room " + roomID + " not found.");
+        }
+        return reschedule(room.getTimetable(), day, from, to);
+    }
+
+    /**
+     * Plans moving every session of a lecturer out of a window of one day.
+     *
+     * @param lecturerID the lecturer who is unavailable
+     * @param day the day of the outage
+     * @param from the start of the outage
+     * @param to the end of the outage (exclusive)
+     * @return the plan, to be merged or discarded by the caller
+     * @throws IllegalArgumentException if the lecturer does not exist or the window is empty
+     */
+    public RescheduleResult rescheduleLecturer(String lecturerID, DayOfWeek day, LocalTime from, LocalTime to) {
+        User user = userRepo.getById(lecturerID);
+        if (!(user instanceof Lecturer)) {
+            throw new IllegalArgumentException("Invalid Lecturer ID " + lecturerID);
+        }
+        return reschedule(((Lecturer) user).getTimetable(), day, from, to);
+    }
+
+    private RescheduleResult reschedule(Timetable unavailable, DayOfWeek day, LocalTime from, LocalTime to) {
+        long started = System.nanoTime();
+        Outage outage = new Outage(unavailable, Session.minuteOfWeek(day, from), Session.minuteOfWeek(day, to));
+        if (outage.end <= outage.start) {
+            throw new IllegalArgumentException("The outage must end after it starts.");
+        }
+
+        ScheduleSandbox scenario = schedulingService.createSandbox();
+        List<Session> affected = unavailable.findConflicts(outage.start, outage.end);
+        List<Session> order = new ArrayList<>(affected);
+        order.sort(HARDEST_FIRST);
+
+        // Lift every affected session first, so they can take each other's places
+        Set<String> pinned = new HashSet<>();
+        for (Session session : order) {
+            scenario.remove(session.getSessionID());
+            pinned.add(session.getSessionID());
+        }
+
+        List<Session> relocated = new ArrayList<>();
+        List<Session> displaced = new ArrayList<>();
+        List<Session> unplaced = new ArrayList<>();
+        for (Session session : order) {
+            Options options = options(session);
+            Session moved = options == null ? null : bestMove(session, options, scenario, outage);
+            if (moved != null) {
+                scenario.schedule(moved);
+                relocated.add(moved);
+            } else if (options == null || !placeByDisplacing(session, options, scenario, outage, pinned, relocated, displaced)) {
+                unplaced.add(session);
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new RescheduleResult(affected, relocated, displaced, unplaced, scenario, elapsedMillis);
+    }
+
+    /** Finds the cheapest slot where the session fits without moving anything else, or {@code null}. */
+    private Session bestMove(Session session, Options options, ScheduleSandbox scenario, Outage outage) {
+        Session best = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (DayOfWeek day : TimetableGenerator.TEACHING_DAYS) {
+            for (int minute : options.startMinutes) {
+                int timeCost = timeCost(session, day, minute);
+                if (timeCost >= bestCost) {
+                    continue;
+                }
+                int start = Session.minuteOfWeek(day, LocalTime.MIDNIGHT) + minute;
+                int end = start + session.getSessionDuration();
+                if (!groupsFree(options.groups, scenario, start, end)) {
+                    continue;
+                }
+                for (Lecturer lecturer : options.lecturers) {
+                    int lecturerCost = timeCost + (lecturer == options.lecturers.get(0) ? 0 : OTHER_LECTURER_COST);
+                    if (lecturerCost >= bestCost || !isAvailable(lecturer.getTimetable(), scenario, outage, start, end)) {
+                        continue;
+                    }
+                    for (Room room : options.rooms) {
+                        int cost = lecturerCost + (room == options.rooms.get(0) ? 0 : OTHER_ROOM_COST);
+                        if (cost < bestCost && isAvailable(room.getTimetable(), scenario, outage, start, end)) {
+                            best = relocate(session, room, lecturer, day, minute);
+                            bestCost = cost;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Places a session in a slot blocked by exactly one other session, which is moved to its own
+     * cheapest free slot. Slots are tried cheapest first; the scenario is left unchanged on failure.
+     */
+    private boolean placeByDisplacing(Session session, Options options, ScheduleSandbox scenario, Outage outage,
+                                      Set<String> pinned, List<Session> relocated, List<Session> displaced) {
+        List<Displacement> candidates = new ArrayList<>();
+        for (DayOfWeek day : TimetableGenerator.TEACHING_DAYS) {
+            for (int minute : options.startMinutes) {
+                int start = Session.minuteOfWeek(day, LocalTime.MIDNIGHT) + minute;
+                int end = start + session.getSessionDuration();
+                Map<String, Session> groupBlockers = new LinkedHashMap<>();
+                for (StudentGroup group : options.groups) {
+                    addBlockers(groupBlockers, scenario.view(group.getTimetable()), start, end);
+                }
+                if (groupBlockers.size() > 1) {
+                    continue;
+                }
+                for (Lecturer lecturer : options.lecturers) {
+                    if (isOutage(lecturer.getTimetable(), outage, start, end)) {
+                        continue;
+                    }
+                    Map<String, Session> lecturerBlockers = new LinkedHashMap<>(groupBlockers);
+                    addBlockers(lecturerBlockers, scenario.view(lecturer.getTimetable()), start, end);
+                    if (lecturerBlockers.size() > 1) {
+                        continue;
+                    }
+                    for (Room room : options.rooms) {
+                        if (isOutage(room.getTimetable(), outage, start, end)) {
+                            continue;
+                        }
+                        Map<String, Session> blockers = new LinkedHashMap<>(lecturerBlockers);
+                        addBlockers(blockers, scenario.view(room.getTimetable()), start, end);
+                        if (blockers.size() != 1) {
+                            continue;
+                        }
+                        Session blocker = blockers.values().iterator().next();
+                        if (pinned.contains(blocker.getSessionID())) {
+                            continue;
+                        }
+                        int cost = timeCost(session, day, minute)
+                                + (lecturer == options.lecturers.get(0) ? 0 : OTHER_LECTURER_COST)
+                                + (room == options.rooms.get(0) ? 0 : OTHER_ROOM_COST);
+                        candidates.add(new Displacement(relocate(session, room, lecturer, day, minute), blocker, cost));
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingInt(d -> d.cost));
+
+        for (int i = 0; i < candidates.size() && i < MAX_DISPLACEMENT_TRIES; i++) {
+            Displacement candidate = candidates.get(i);
+            Options blockerOptions = options(candidate.blocker);
+            if (blockerOptions == null) {
+                continue;
+            }
+            scenario.remove(candidate.blocker.getSessionID());
+            if (scenario.schedule(candidate.moved).isScheduled()) {
+                Session blockerMoved = bestMove(candidate.blocker, blockerOptions, scenario, outage);
+                if (blockerMoved != null && scenario.schedule(blockerMoved).isScheduled()) {
+                    relocated.add(candidate.moved);
+                    displaced.add(blockerMoved);
+                    pinned.add(candidate.blocker.getSessionID());
+                    return true;
+                }
+                scenario.remove(candidate.moved.getSessionID());
+            }
+            scenario.schedule(candidate.blocker);
+        }
+        return false;
+    }
+
+    /** Resolves where and by whom a session may be taught, or {@code null} if its references are invalid. */
+    private Options options(Session session) {
+        Room originalRoom = roomRepo.getBySymbol(session.getRoomSymbol());
+        Lecturer originalLecturer = schedulingService.findLecturer(session.getLecturerSymbol());
+        if (originalRoom == null || originalLecturer == null) {
+            return null;
+        }
+        List<StudentGroup> groups = schedulingService.findGroups(session);
+        int size = 0;
+        for (StudentGroup group : groups) {
+            if (group == null) {
+                return null;
+            }
+            size += group.size();
+        }
+
+        // The original room and lecturer come first; they carry no extra cost
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(originalRoom);
+        for (Room room : roomRepo.findRooms(originalRoom.getType(), Math.min(size, originalRoom.getCapacity()))) {
+            if (room != originalRoom) {
+                rooms.add(room);
+            }
+        }
+        List<Lecturer> lecturers = new ArrayList<>();
+        lecturers.add(originalLecturer);
+        Module module = moduleRepo.getBySymbol(session.getModuleSymbol());
+        if (module != null) {
+            for (String lecturerID : module.getLecturerIDs()) {
+                Lecturer lecturer = schedulingService.findLecturer(lecturerID.trim());
+                if (lecturer != null && !lecturers.contains(lecturer)) {
+                    lecturers.add(lecturer);
+                }
+            }
+        }
+
+        List<Integer> startMinutes = new ArrayList<>();
+        int duration = session.getSessionDuration();
+        for (int minute = TimetableGenerator.FIRST_HOUR * 60; minute + duration <= TimetableGenerator.LAST_HOUR * 60;
+             minute += SchedulingService.FREE_SLOT_STEP_MINUTES) {
+            startMinutes.add(minute);
+        }
+        int originalMinute = session.getStartTime().getHour() * 60 + session.getStartTime().getMinute();
+        if (!startMinutes.contains(originalMinute)) {
+            startMinutes.add(originalMinute);
+        }
+        return new Options(rooms, lecturers, groups, startMinutes);
+    }
+
+    private static int timeCost(Session session, DayOfWeek day, int minute) {
+        int originalMinute = session.getStartTime().getHour() * 60 + session.getStartTime().getMinute();
+        return (day == session.getDay() ? 0 : OTHER_DAY_COST) + Math.abs(minute - originalMinute);
+    }
+
+    private static Session relocate(Session session, Room room, Lecturer lecturer, DayOfWeek day, int minute) {
+        return new Session(session.getSessionID(), session.getModuleCode(), session.getSessionType(), lecturer.getId(),
+                room.getId(), session.getStudentGroupIDs(), day, LocalTime.of(minute / 60, minute % 60),
+                session.getSessionDuration());
+    }
+
+    private static boolean groupsFree(List<StudentGroup> groups, ScheduleSandbox scenario, int start, int end) {
+        for (StudentGroup group : groups) {
+            if (!scenario.view(group.getTimetable()).isFree(start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAvailable(Timetable timetable, ScheduleSandbox scenario, Outage outage, int start, int end) {
+        return !isOutage(timetable, outage, start, end) && scenario.view(timetable).isFree(start, end);
+    }
+
+    private static boolean isOutage(Timetable timetable, Outage outage, int start, int end) {
+        return timetable == outage.timetable && start < outage.end && outage.start < end;
+    }
+
+    private static void addBlockers(Map<String, Session> blockers, Timetable timetable, int start, int end) {
+        for (Session session : timetable.findConflicts(start, end)) {
+            blockers.put(session.getSessionID(), session);
+        }
+    }
+
+    /** The live timetable of the unavailable resource and the window it is unavailable for. */
+    private static class Outage {
+        final Timetable timetable;
+        final int start;
+        final int end;
+
+        Outage(Timetable timetable, int start, int end) {
+            this.timetable = timetable;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** The rooms, lecturers and start times a session may use; the first room and lecturer are its own. */
+    private static class Options {
+        final List<Room> rooms;
+        final List<Lecturer> lecturers;
+        final List<StudentGroup> groups;
+        final List<Integer> startMinutes;
+
+        Options(List<Room> rooms, List<Lecturer> lecturers, List<StudentGroup> groups, List<Integer> startMinutes) {
+            this.rooms = rooms;
+            this.lecturers = lecturers;
+            this.groups = groups;
+            this.startMinutes = startMinutes;
+        }
+    }
+
+    /** A slot for a session that is blocked only by {@code blocker}. */
+    private static class Displacement {
+        final Session moved;
+        final Session blocker;
+        final int cost;
+
+        Displacement(Session moved, Session blocker, int cost) {
+            this.moved = moved;
+            this.blocker = blocker;
+            this.cost = cost;
+        }
+    }
+}
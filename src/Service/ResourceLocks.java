@@ -0,0 +1,87 @@
+package Service;
+
+import Model.Session;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks over the resources a session touches: its ID, room, lecturer and student groups.
+ * Each resource hashes to one of a fixed number of stripes, and a caller always acquires its
+ * stripes in ascending index order, so two threads can never wait on each other in a cycle.
+ * Sessions whose resources land on different stripes are scheduled in parallel.
+ */
+class ResourceLocks {
+
+    // Resource kinds of the symbol-based keys; sessions are keyed by the hash of their ID
+    private static final int ROOM = 1;
+    private static final int LECTURER = 2;
+    private static final int GROUP = 3;
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Creates the lock stripes.
+     *
+     * @param stripeCount number of stripes, rounded up to a power of two
+     */
+    ResourceLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquires the stripes of every resource referenced by the given sessions, in canonical order.
+     *
+     * @param sessions the sessions about to be validated and committed
+     * @return the acquired stripe indexes, to be passed to {@link #unlock}
+     */
+    int[] lock(Collection<Session> sessions) {
+        int[] indexes = new int[stripes.length];
+        int count = 0;
+        boolean[] seen = new boolean[stripes.length];
+        for (Session session : sessions) {
+            count = mark(session.getSessionID().hashCode(), seen, indexes, count);
+            count = mark(key(ROOM, session.getRoomSymbol()), seen, indexes, count);
+            count = mark(key(LECTURER, session.getLecturerSymbol()), seen, indexes, count);
+            for (int groupSymbol : session.getStudentGroupSymbols()) {
+                count = mark(key(GROUP, groupSymbol), seen, indexes, count);
+            }
+        }
+        int[] ordered = Arrays.copyOf(indexes, count);
+        Arrays.sort(ordered);
+        for (int i = 0; i < ordered.length; i++) {
+            stripes[ordered[i]].lock();
+        }
+        return ordered;
+    }
+
+    /**
+     * Releases stripes acquired by {@link #lock}, in reverse order.
+     *
+     * @param ordered the stripe indexes returned by {@link #lock}
+     */
+    void unlock(int[] ordered) {
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            stripes[ordered[i]].unlock();
+        }
+    }
+
+    /** Combines a resource kind with the symbol of its ID, so that e.g. room 5 and group 5 are different keys. */
+    private static int key(int kind, int symbol) {
+        return (symbol * 4 + kind) * 0x9E3779B9; // Spreads consecutive symbols over the stripes
+    }
+
+    /** Records the stripe of a resource key once, returning the new count of stripes. */
+    private int mark(int h, boolean[] seen, int[] indexes, int count) {
+        int index = (h ^ (h >>> 16)) & (stripes.length - 1);
+        if (!seen[index]) {
+            seen[index] = true;
+            indexes[count++] = index;
+        }
+        return count;
+    }
+}
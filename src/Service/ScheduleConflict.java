@@ -0,0 +1,67 @@
+package Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One clash between a proposed session and a session already booked for the same room,
+ * lecturer or student group.
+ */
+public class ScheduleConflict {
+    private final String resourceType;
+    private final String resourceID;
+    private final String blockingSessionID;
+    private final DayOfWeek day;
+    private final LocalTime overlapStart;
+    private final LocalTime overlapEnd;
+
+    /**
+     * Constructs a conflict.
+     *
+     * @param resourceType "Room", "Lecturer" or "Group"
+     * @param resourceID the ID of the double-booked resource
+     * @param blockingSessionID the ID of the session already holding the resource
+     * @param day the day of the clash
+     * @param overlapStart start of the overlapping window
+     * @param overlapEnd end of the overlapping window
+     */
+    public ScheduleConflict(String resourceType, String resourceID, String blockingSessionID,
+                            DayOfWeek day, LocalTime overlapStart, LocalTime overlapEnd) {
+        this.resourceType = resourceType;
+        this.resourceID = resourceID;
+        this.blockingSessionID = blockingSessionID;
+        this.day = day;
+        this.overlapStart = overlapStart;
+        this.overlapEnd = overlapEnd;
+    }
+
+    public String getResourceType() {
+        return resourceType;
+    }
+
+    public String getResourceID() {
+        return resourceID;
+    }
+
+    public String getBlockingSessionID() {
+        return blockingSessionID;
+    }
+
+    public DayOfWeek getDay() {
+        return day;
+    }
+
+    public LocalTime getOverlapStart() {
+        return overlapStart;
+    }
+
+    public LocalTime getOverlapEnd() {
+        return overlapEnd;
+    }
+
+    @Override
+    public String toString() {
+        return resourceType + " " + resourceID + " is booked by " + blockingSessionID
+                + " on " + day + " " + overlapStart + "-" + overlapEnd;
+    }
+}
@@ -0,0 +1,231 @@
+package Service;
+
+import Model.Lecturer;
+import Model.Room;
+import Model.Session;
+import Model.StudentGroup;
+import Model.Timetable;
+import Repositories.RoomRepository;
+import Repositories.SessionRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A what-if scenario layered over the live timetables, created by {@link SchedulingService#createSandbox()}.
+ * <p>
+ * The scenario shares every timetable with the live model until it changes one: the first change to a
+ * timetable copies it, and later reads of that timetable go to the copy. Creating a scenario therefore
+ * costs nothing, and its size grows only with the timetables it touches. Timetables the scenario has not
+ * touched still show live changes made by others.
+ * <p>
+ * A scenario is discarded by dropping it (or calling {@link #discard()}), or applied to the live model with
+ * {@link #merge()}, which re-validates it under the resource locks. A scenario is meant for one thread.
+ */
+public class ScheduleSandbox {
+    private final SchedulingService service;
+    private final RoomRepository roomRepo;
+    private final SessionRepository sessionRepo;
+
+    private final Map<Timetable, Timetable> copies = new IdentityHashMap<>();
+    private final Map<String, Session> added = new LinkedHashMap<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    private final Set<String> closedRooms = new HashSet<>();
+
+    ScheduleSandbox(SchedulingService service, RoomRepository roomRepo, SessionRepository sessionRepo) {
+        this.service = service;
+        this.roomRepo = roomRepo;
+        this.sessionRepo = sessionRepo;
+    }
+
+    /**
+     * Schedules a session in the scenario, with the same checks as {@link SchedulingService#scheduleSession}.
+     *
+     * @param session the session to add
+     * @return whether the session was added and, if not, why
+     */
+    public SchedulingResult schedule(Session session) {
+        Room room = roomRepo.getBySymbol(session.getRoomSymbol());
+        Lecturer lecturer = service.findLecturer(session.getLecturerSymbol());
+        List<StudentGroup> groups = service.findGroups(session);
+
+        String problem = validate(session, room, lecturer, groups);
+        if (problem != null) {
+            return new SchedulingResult(session, false, problem);
+        }
+
+        writable(room.getTimetable()).addSession(session);
+        writable(lecturer.getTimetable()).addSession(session);
+        for (StudentGroup group : groups) {
+            writable(group.getTimetable()).addSession(session);
+        }
+        if (session.sameAs(sessionRepo.getById(session.getSessionID()))) {
+            // Putting back a live session that was removed in the scenario cancels the removal
+            removed.remove(session.getSessionID());
+        } else {
+            added.put(session.getSessionID(), session);
+        }
+        return new SchedulingResult(session, true, null);
+    }
+
+    /**
+     * Removes a session from the scenario, whether it is live or was added to the scenario.
+     *
+     * @param sessionID the ID of the session to remove
+     * @return {@code true} if the session was in the scenario
+     */
+    public boolean remove(String sessionID) {
+        Session session = getSession(sessionID);
+        if (session == null) {
+            return false;
+        }
+        Room room = roomRepo.getBySymbol(session.getRoomSymbol());
+        if (room != null) {
+            writable(room.getTimetable()).removeSession(sessionID);
+        }
+        Lecturer lecturer = service.findLecturer(session.getLecturerSymbol());
+        if (lecturer != null) {
+            writable(lecturer.getTimetable()).removeSession(sessionID);
+        }
+        for (StudentGroup group : service.findGroups(session)) {
+            if (group != null) {
+                writable(group.getTimetable()).removeSession(sessionID);
+            }
+        }
+        if (added.remove(sessionID) == null) {
+            removed.add(sessionID);
+        }
+        return true;
+    }
+
+    /**
+     * Closes a room in the scenario: its sessions are removed and nothing more can be scheduled into it.
+     *
+     * @param roomID the ID of the room to close
+     * @return the sessions displaced from the room, in chronological order
+     */
+    public List<Session> closeRoom(String roomID) {
+        Room room = roomRepo.getById(roomID);
+        if (room == null) {
+            return Collections.emptyList();
+        }
+        List<Session> displaced = view(room.getTimetable()).getSchedulesSessions();
+        for (Session session : displaced) {
+            remove(session.getSessionID());
+        }
+        closedRooms.add(roomID);
+        return displaced;
+    }
+
+    /**
+     * Returns the scenario's version of a live timetable. It must not be modified.
+     *
+     * @param live the timetable of a room, lecturer or student group
+     * @return the scenario's copy if the scenario changed it, otherwise the live timetable itself
+     */
+    public Timetable view(Timetable live) {
+        Timetable copy = copies.get(live);
+        return copy != null ? copy : live;
+    }
+
+    /**
+     * Looks up a session as the scenario sees it.
+     *
+     * @param sessionID the session ID
+     * @return the session, or {@code null} if it does not exist or was removed in the scenario
+     */
+    public Session getSession(String sessionID) {
+        Session session = added.get(sessionID);
+        if (session != null || removed.contains(sessionID)) {
+            return session;
+        }
+        return sessionRepo.getById(sessionID);
+    }
+
+    public List<Session> getAddedSessions() {
+        return new ArrayList<>(added.values());
+    }
+
+    public List<String> getRemovedSessionIDs() {
+        return new ArrayList<>(removed);
+    }
+
+    /**
+     * Gets the number of timetables the scenario has copied so far.
+     *
+     * @return the copied timetable count
+     */
+    public int getCopiedTimetableCount() {
+        return copies.size();
+    }
+
+    /** Drops every change made in the scenario; it then mirrors the live model again. */
+    public void discard() {
+        copies.clear();
+        added.clear();
+        removed.clear();
+        closedRooms.clear();
+    }
+
+    /**
+     * Applies the scenario to the live model in one step via {@link SchedulingService#applyChanges}.
+     * The live model is only changed if every added session is still valid against it, and the
+     * scenario is emptied if the merge succeeded. Closed rooms only restrict the scenario itself.
+     *
+     * @return the report of the added sessions
+     */
+    public BatchReport merge() {
+        BatchReport report = service.applyChanges(removed, added.values());
+        if (report.getFailures().isEmpty()) {
+            discard();
+        }
+        return report;
+    }
+
+    /** Same checks, in the same order and with the same messages, as the live scheduler. */
+    private String validate(Session session, Room room, Lecturer lecturer, List<StudentGroup> groups) {
+        if (getSession(session.getSessionID()) != null) {
+            return "Error: Session " + session.getSessionID() + " already exists.";
+        }
+
+        if (room == null) {
+            return "Error: Room " + session.getRoomID() + " not found.";
+        }
+        if (closedRooms.contains(room.getId())) {
+            return "Conflict: Room " + session.getRoomID() + " is closed.";
+        }
+        if (view(room.getTimetable()).checkConflict(session)) {
+            return "Conflict: Room " + session.getRoomID() + " is occupied.";
+        }
+
+        if (lecturer == null) {
+            return "Error: Invalid Lecturer ID " + session.getLecturerID();
+        }
+        if (view(lecturer.getTimetable()).checkConflict(session)) {
+            return "Conflict: Lecturer " + session.getLecturerID() + " is busy.";
+        }
+
+        List<String> groupIDs = session.getStudentGroupIDs();
+        for (int i = 0; i < groupIDs.size(); i++) {
+            StudentGroup group = groups.get(i);
+            if (group == null) {
+                return "Error: Student Group " + groupIDs.get(i) + " not found.";
+            }
+            if (view(group.getTimetable()).checkConflict(session)) {
+                return "Conflict: Group " + groupIDs.get(i) + " has a clash.";
+            }
+        }
+        return null;
+    }
+
+    /** Returns the scenario's copy of a live timetable, copying it on first write. */
+    private Timetable writable(Timetable live) {
+        return copies.computeIfAbsent(live, Timetable::copy);
+    }
+}
@@ -0,0 +1,42 @@
+package Service;
+
+import Model.Session;
+
+/**
+ * Outcome of validating and scheduling a single session as part of a batch.
+ */
+public class SchedulingResult {
+    private final Session session;
+    private final boolean scheduled;
+    private final String message;
+
+    /**
+     * Constructs a result for one session.
+     *
+     * @param session the session that was processed
+     * @param scheduled whether the session was committed to the timetables
+     * @param message why the session was rejected, or {@code null} if it was scheduled
+     */
+    public SchedulingResult(Session session, boolean scheduled, String message) {
+        this.session = session;
+        this.scheduled = scheduled;
+        this.message = message;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return session.getSessionID() + ": " + (scheduled ? "scheduled" : message);
+    }
+}
@@ -2,17 +2,45 @@ package Service;
 
 import Model.*;
 import Repositories.*;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Service class responsible for scheduling modules, lectures, labs, and tutorials.
+ * <p>
+ * Scheduling is safe to call from several threads. Each call locks the stripes of the rooms,
+ * lecturers and student groups it touches (see {@link ResourceLocks}), so sessions that share
+ * no resources are validated and committed in parallel and none can be double-booked.
  */
 public class SchedulingService {
 
+    /**
+     * Defines how {@link #scheduleAll(Collection, CommitPolicy)} commits a batch.
+     */
+    public static enum CommitPolicy {
+        /** Commit the batch only if every session in it is valid. */
+        ATOMIC,
+        /** Commit every valid session and report the rest. */
+        PARTIAL
+    }
+
     private RoomRepository roomRepo;
     private StudentGroupRepository groupRepo;
     private SessionRepository sessionRepo;
     private UserRepository userRepo;
+    private ResourceLocks locks;
+    private Journal journal;
+
+    /** Number of lock stripes shared by all resources. */
+    private static final int LOCK_STRIPES = 256;
+
+    /** Spacing in minutes between the candidate start times of {@link #findCommonFreeSlots}. */
+    static final int FREE_SLOT_STEP_MINUTES = 15;
 
     /**
      * Constructs the SchedulingService with references to all required repositories.
@@ -27,6 +55,17 @@ public class SchedulingService {
         this.groupRepo = groupRepo;
         this.sessionRepo = sessionRepo;
         this.userRepo = userRepo;
+        this.locks = new ResourceLocks(LOCK_STRIPES);
+    }
+
+    /**
+     * Records every session scheduled or removed from now on in a journal. Set this only once the
+     * journal has been replayed, so the replayed changes are not recorded a second time.
+     *
+     * @param journal the journal to append to, or {@code null} to stop recording
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -35,55 +74,427 @@ public class SchedulingService {
      * @return true or false depending if if it clashes
      */
     public boolean scheduleSession(Session newSession) {
-        // 1. Validate Room
-        Room room = roomRepo.getById(newSession.getRoomID());
-        if (room == null) {
-            System.out.println("Error: Room " + newSession.getRoomID() + " not found.");
+        int[] held = locks.lock(List.of(newSession));
+        try {
+            return scheduleLocked(newSession);
+        } finally {
+            locks.unlock(held);
+            syncJournal();
+        }
+    }
+
+    /** Validates and commits a single session; the caller holds its resource locks. */
+    private boolean scheduleLocked(Session newSession) {
+        Room room = roomRepo.getBySymbol(newSession.getRoomSymbol());
+        Lecturer lecturer = findLecturer(newSession.getLecturerSymbol());
+        List<StudentGroup> groups = findGroups(newSession);
+
+        String problem = validate(newSession, room, lecturer, groups, null);
+        if (problem != null) {
+            System.out.println(problem);
             return false;
         }
-        // Check Room Conflict
-        if (room.getTimetable().checkConflict(newSession)) {
-            System.out.println("Conflict: Room " + newSession.getRoomID() + " is occupied.");
+
+        commit(newSession, room, lecturer, groups);
+        return true;
+    }
+
+    /**
+     * Schedules a batch of sessions atomically, see {@link #scheduleAll(Collection, CommitPolicy)}.
+     *
+     * @param sessions the sessions to schedule
+     * @return the per-session report
+     */
+    public BatchReport scheduleAll(Collection<Session> sessions) {
+        return scheduleAll(sessions, CommitPolicy.ATOMIC);
+    }
+
+    /**
+     * Validates a whole batch of sessions in one pass and commits it according to the policy.
+     * Sessions are checked against the live timetables and against the sessions accepted earlier
+     * in the same batch, so clashes inside the batch are reported too. Rooms, lecturers and groups
+     * are looked up once per batch and nothing is printed.
+     *
+     * @param sessions the sessions to schedule, in priority order
+     * @param policy whether an invalid session rejects the whole batch or only itself
+     * @return one result per session, in the order given
+     */
+    public BatchReport scheduleAll(Collection<Session> sessions, CommitPolicy policy) {
+        int[] held = locks.lock(sessions);
+        try {
+            return scheduleAllLocked(sessions, policy);
+        } finally {
+            locks.unlock(held);
+            syncJournal();
+        }
+    }
+
+    /** Validates and commits a batch; the caller holds the locks of every resource in it. */
+    private BatchReport scheduleAllLocked(Collection<Session> sessions, CommitPolicy policy) {
+        StagedTimetables staged = new StagedTimetables();
+
+        List<SchedulingResult> results = new ArrayList<>(sessions.size());
+        List<Session> accepted = new ArrayList<>();
+        List<Room> acceptedRooms = new ArrayList<>();
+        List<Lecturer> acceptedLecturers = new ArrayList<>();
+        List<List<StudentGroup>> acceptedGroups = new ArrayList<>();
+
+        for (Session session : sessions) {
+            Room room = roomRepo.getBySymbol(session.getRoomSymbol());
+            Lecturer lecturer = findLecturer(session.getLecturerSymbol());
+            List<StudentGroup> groups = findGroups(session);
+
+            String problem = validate(session, room, lecturer, groups, staged);
+            if (problem != null) {
+                results.add(new SchedulingResult(session, false, problem));
+                continue;
+            }
+
+            staged.add(session, room, lecturer, groups);
+            results.add(new SchedulingResult(session, true, null));
+            accepted.add(session);
+            acceptedRooms.add(room);
+            acceptedLecturers.add(lecturer);
+            acceptedGroups.add(groups);
+        }
+
+        if (policy == CommitPolicy.ATOMIC && accepted.size() < sessions.size()) {
+            List<SchedulingResult> rolledBack = new ArrayList<>(results.size());
+            for (SchedulingResult result : results) {
+                rolledBack.add(result.isScheduled()
+                        ? new SchedulingResult(result.getSession(), false, "Not committed: the batch contains invalid sessions.")
+                        : result);
+            }
+            return new BatchReport(rolledBack, false);
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            commit(accepted.get(i), acceptedRooms.get(i), acceptedLecturers.get(i), acceptedGroups.get(i));
+        }
+        return new BatchReport(results, !accepted.isEmpty());
+    }
+
+    /**
+     * Removes a scheduled session from its room, lecturer and group timetables and from the session repository.
+     *
+     * @param sessionID the ID of the session to remove
+     * @return {@code true} if the session existed and was removed
+     */
+    public boolean removeSession(String sessionID) {
+        Session session = sessionRepo.getById(sessionID);
+        if (session == null) {
             return false;
         }
+        int[] held = locks.lock(List.of(session));
+        try {
+            if (!session.sameAs(sessionRepo.getById(sessionID))) {
+                return false;
+            }
+            uncommit(session);
+            return true;
+        } finally {
+            locks.unlock(held);
+            syncJournal();
+        }
+    }
+
+    /**
+     * Atomically replaces a set of scheduled sessions: removes {@code removeIDs}, then schedules
+     * {@code additions} as an {@link CommitPolicy#ATOMIC} batch. If any addition is rejected the removed
+     * sessions are restored, so the live timetables are either fully updated or left unchanged.
+     * The locks of every resource involved are held throughout.
+     *
+     * @param removeIDs IDs of sessions to remove; IDs that are not scheduled are ignored
+     * @param additions sessions to schedule once the removals are done (may reuse removed IDs)
+     * @return the per-session report of the additions
+     */
+    public BatchReport applyChanges(Collection<String> removeIDs, Collection<Session> additions) {
+        List<Session> removed = new ArrayList<>();
+        for (String sessionID : removeIDs) {
+            Session session = sessionRepo.getById(sessionID);
+            if (session != null) {
+                removed.add(session);
+            }
+        }
+        List<Session> involved = new ArrayList<>(removed);
+        involved.addAll(additions);
+
+        int[] held = locks.lock(involved);
+        try {
+            List<Session> stillScheduled = new ArrayList<>();
+            for (Session session : removed) {
+                if (session.sameAs(sessionRepo.getById(session.getSessionID()))) {
+                    uncommit(session);
+                    stillScheduled.add(session);
+                }
+            }
+            BatchReport report = scheduleAllLocked(additions, CommitPolicy.ATOMIC);
+            if (!report.getFailures().isEmpty()) {
+                for (Session session : stillScheduled) {
+                    commit(session, roomRepo.getBySymbol(session.getRoomSymbol()), findLecturer(session.getLecturerSymbol()),
+                            findGroups(session));
+                }
+            }
+            return report;
+        } finally {
+            locks.unlock(held);
+            syncJournal();
+        }
+    }
+
+    /**
+     * Creates a what-if scenario over the current timetables. Changes made in the scenario are
+     * invisible to everyone else until {@link ScheduleSandbox#merge()} is called.
+     *
+     * @return a new, empty scenario
+     */
+    public ScheduleSandbox createSandbox() {
+        return new ScheduleSandbox(this, roomRepo, sessionRepo);
+    }
+
+    /**
+     * Validates a session without scheduling it and reports every problem at once, rather than
+     * stopping at the first clash like {@link #scheduleSession}. Each timetable is asked only for
+     * the sessions overlapping the proposed window, so the cost grows with the number of clashes,
+     * not with the size of the timetables.
+     *
+     * @param session the session to check
+     * @return the missing entities and every clash with its room, lecturer and groups
+     */
+    public ConflictReport explainConflicts(Session session) {
+        List<String> errors = new ArrayList<>();
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+
+        if (sessionRepo.getById(session.getSessionID()) != null) {
+            errors.add("Session " + session.getSessionID() + " already exists.");
+        }
+
+        Room room = roomRepo.getBySymbol(session.getRoomSymbol());
+        if (room == null) {
+            errors.add("Room " + session.getRoomID() + " not found.");
+        } else {
+            addConflicts(conflicts, "Room", session.getRoomID(), room.getTimetable(), session);
+        }
+
+        Lecturer lecturer = findLecturer(session.getLecturerSymbol());
+        if (lecturer == null) {
+            errors.add("Invalid Lecturer ID " + session.getLecturerID());
+        } else {
+            addConflicts(conflicts, "Lecturer", session.getLecturerID(), lecturer.getTimetable(), session);
+        }
+
+        for (int groupSymbol : session.getStudentGroupSymbols()) {
+            String groupID = SymbolTable.GROUPS.name(groupSymbol);
+            StudentGroup group = groupRepo.getBySymbol(groupSymbol);
+            if (group == null) {
+                errors.add("Student Group " + groupID + " not found.");
+            } else {
+                addConflicts(conflicts, "Group", groupID, group.getTimetable(), session);
+            }
+        }
+        return new ConflictReport(session, errors, conflicts);
+    }
+
+    /** Records a conflict for every session in the timetable overlapping the proposed session. */
+    private void addConflicts(List<ScheduleConflict> conflicts, String resourceType, String resourceID,
+                              Timetable timetable, Session session) {
+        for (Session blocking : timetable.findConflicts(session.getStartMinuteOfWeek(), session.getEndMinuteOfWeek())) {
+            if (blocking.getSessionID().equals(session.getSessionID())) {
+                continue;
+            }
+            LocalTime overlapStart = session.getStartTime().isAfter(blocking.getStartTime()) ? session.getStartTime() : blocking.getStartTime();
+            LocalTime overlapEnd = session.getEndMinuteOfWeek() < blocking.getEndMinuteOfWeek() ? session.getEndTime() : blocking.getEndTime();
+            conflicts.add(new ScheduleConflict(resourceType, resourceID, blocking.getSessionID(),
+                    session.getDay(), overlapStart, overlapEnd));
+        }
+    }
+
+    /**
+     * Finds every start time in teaching hours at which a lecturer, a room and all of the given
+     * student groups are free for {@code durationMinutes}.
+     * <p>
+     * The occupancy of all involved timetables is OR-ed into one week bitmap, so adding more groups
+     * only costs one extra pass over a 158-word array; candidate starts are then tested against that
+     * single bitmap. Slots are ranked so that those following on directly from the lecturer's or
+     * groups' other sessions (fewer gaps) come first, then by day and time.
+     *
+     * @param lecturerID the lecturer who will teach
+     * @param roomID the room to use, or {@code null} to ignore rooms
+     * @param groupIDs the student groups that will attend
+     * @param durationMinutes the length of the session
+     * @return the ranked free slots, empty if any resource does not exist
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public List<FreeSlot> findCommonFreeSlots(String lecturerID, String roomID, List<String> groupIDs, int durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Session duration must be positive: " + durationMinutes);
+        }
+        long[] people = WeekBitmap.create();
+        Lecturer lecturer = findLecturer(lecturerID);
+        if (lecturer == null) {
+            return new ArrayList<>();
+        }
+        lecturer.getTimetable().addOccupancyTo(people);
+        for (String groupID : groupIDs) {
+            StudentGroup group = groupRepo.getById(groupID);
+            if (group == null) {
+                return new ArrayList<>();
+            }
+            group.getTimetable().addOccupancyTo(people);
+        }
+        long[] everything = people.clone();
+        if (roomID != null) {
+            Room room = roomRepo.getById(roomID);
+            if (room == null) {
+                return new ArrayList<>();
+            }
+            room.getTimetable().addOccupancyTo(everything);
+        }
+
+        List<FreeSlot> slots = new ArrayList<>();
+        for (DayOfWeek day : TimetableGenerator.TEACHING_DAYS) {
+            int dayStart = Session.minuteOfWeek(day, LocalTime.MIDNIGHT);
+            int first = dayStart + TimetableGenerator.FIRST_HOUR * 60;
+            int last = dayStart + TimetableGenerator.LAST_HOUR * 60 - durationMinutes;
+            for (int start = first; start <= last; start += FREE_SLOT_STEP_MINUTES) {
+                int end = start + durationMinutes;
+                if (!WeekBitmap.isClear(everything, start, end)) {
+                    continue;
+                }
+                int adjacent = 0;
+                if (start > dayStart && WeekBitmap.isSet(people, start - 1)) {
+                    adjacent++;
+                }
+                if (end < dayStart + Session.MINUTES_PER_DAY && WeekBitmap.isSet(people, end)) {
+                    adjacent++;
+                }
+                slots.add(new FreeSlot(day, LocalTime.of((start - dayStart) / 60, (start - dayStart) % 60), durationMinutes, adjacent));
+            }
+        }
+        // Stable sort keeps chronological order within each rank
+        slots.sort(Comparator.comparingInt(FreeSlot::getAdjacentSides).reversed());
+        return slots;
+    }
+
+    /**
+     * Checks a session against the entities it references and their timetables.
+     *
+     * @param session the session to validate
+     * @param room the resolved room, or {@code null} if it does not exist
+     * @param lecturer the resolved lecturer, or {@code null} if the ID is not a lecturer
+     * @param groups the resolved groups, with {@code null} entries for unknown IDs
+     * @param staged sessions accepted earlier in the same batch, or {@code null} outside a batch
+     * @return a description of the first problem found, or {@code null} if the session can be scheduled
+     */
+    private String validate(Session session, Room room, Lecturer lecturer, List<StudentGroup> groups, StagedTimetables staged) {
+        if (sessionRepo.getById(session.getSessionID()) != null
+                || (staged != null && staged.containsSession(session.getSessionID()))) {
+            return "Error: Session " + session.getSessionID() + " already exists.";
+        }
+
+        // 1. Validate Room
+        if (room == null) {
+            return "Error: Room " + session.getRoomID() + " not found.";
+        }
+        if (!isFree(room.getTimetable(), session, staged)) {
+            return "Conflict: Room " + session.getRoomID() + " is occupied.";
+        }
 
         // 2. Validate Lecturer
-        User user = userRepo.getById(newSession.getLecturerID());
-        if (user == null || !(user instanceof Lecturer)) {
-            System.out.println("Error: Invalid Lecturer ID " + newSession.getLecturerID());
-            return false;
+        if (lecturer == null) {
+            return "Error: Invalid Lecturer ID " + session.getLecturerID();
         }
-        Lecturer lecturer = (Lecturer) user;
-        // Check Lecturer Conflict
-        if (lecturer.getTimetable().checkConflict(newSession)) {
-            System.out.println("Conflict: Lecturer " + newSession.getLecturerID() + " is busy.");
-            return false;
+        if (!isFree(lecturer.getTimetable(), session, staged)) {
+            return "Conflict: Lecturer " + session.getLecturerID() + " is busy.";
         }
 
         // 3. Validate Student Groups
-        for (String groupID : newSession.getStudentGroupIDs()) {
-            StudentGroup group = groupRepo.getById(groupID);
+        List<String> groupIDs = session.getStudentGroupIDs();
+        for (int i = 0; i < groupIDs.size(); i++) {
+            StudentGroup group = groups.get(i);
             if (group == null) {
-                System.out.println("Error: Student Group " + groupID + " not found.");
-                return false;
+                return "Error: Student Group " + groupIDs.get(i) + " not found.";
             }
-            if (group.getTimetable().checkConflict(newSession)) {
-                System.out.println("Conflict: Group " + groupID + " has a clash.");
-                return false;
+            if (!isFree(group.getTimetable(), session, staged)) {
+                return "Conflict: Group " + groupIDs.get(i) + " has a clash.";
             }
         }
+        return null;
+    }
 
-        // 4. No conflicts found - Commit the session to all timetables
-        room.getTimetable().addSession(newSession);
-        lecturer.getTimetable().addSession(newSession);
+    /** Checks a timetable, plus any sessions staged for it in the current batch. */
+    private boolean isFree(Timetable timetable, Session session, StagedTimetables staged) {
+        return staged == null ? !timetable.checkConflict(session) : staged.isFree(timetable, session);
+    }
 
-        for (String groupID : newSession.getStudentGroupIDs()) {
-            StudentGroup group = groupRepo.getById(groupID);
-            group.getTimetable().addSession(newSession);
+    /** Commits a validated session to all of its timetables and to the session repository. */
+    private void commit(Session session, Room room, Lecturer lecturer, List<StudentGroup> groups) {
+        room.getTimetable().addSession(session);
+        lecturer.getTimetable().addSession(session);
+        for (StudentGroup group : groups) {
+            group.getTimetable().addSession(session);
         }
+        sessionRepo.add(session);
+        if (journal != null) {
+            journal.sessionScheduled(session);
+        }
+    }
 
-        // 5. Save the session itself
-        sessionRepo.add(newSession);
-        return true;
+    /** Removes a committed session from all of its timetables and from the session repository. */
+    private void uncommit(Session session) {
+        Room room = roomRepo.getBySymbol(session.getRoomSymbol());
+        if (room != null) {
+            room.getTimetable().removeSession(session.getSessionID());
+        }
+        Lecturer lecturer = findLecturer(session.getLecturerSymbol());
+        if (lecturer != null) {
+            lecturer.getTimetable().removeSession(session.getSessionID());
+        }
+        for (StudentGroup group : findGroups(session)) {
+            if (group != null) {
+                group.getTimetable().removeSession(session.getSessionID());
+            }
+        }
+        sessionRepo.remove(session.getSessionID());
+        if (journal != null) {
+            journal.sessionRemoved(session.getSessionID());
+        }
+    }
+
+    /**
+     * Waits until the changes journaled so far are on disk. Called after the resource locks are released,
+     * so threads committing at the same time share one write.
+     */
+    private void syncJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error: could not write journal: " + e.getMessage());
+        }
+    }
+
+    /** Returns the lecturer with the given ID, or {@code null} if the user does not exist or is not a lecturer. */
+    Lecturer findLecturer(String lecturerID) {
+        User user = userRepo.getById(lecturerID);
+        return (user instanceof Lecturer) ? (Lecturer) user : null;
+    }
+
+    /** Returns the lecturer with the given symbol, or {@code null} if the user does not exist or is not a lecturer. */
+    Lecturer findLecturer(int lecturerSymbol) {
+        User user = userRepo.getBySymbol(lecturerSymbol);
+        return (user instanceof Lecturer) ? (Lecturer) user : null;
+    }
+
+    /** Resolves the session's groups in order by symbol; unknown IDs resolve to {@code null}. */
+    List<StudentGroup> findGroups(Session session) {
+        int[] groupSymbols = session.getStudentGroupSymbols();
+        List<StudentGroup> groups = new ArrayList<>(groupSymbols.length);
+        for (int groupSymbol : groupSymbols) {
+            groups.add(groupRepo.getBySymbol(groupSymbol));
+        }
+        return groups;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package Service;
+
+import Model.Lecturer;
+import Model.OccupancyIndex;
+import Model.Room;
+import Model.Session;
+import Model.StudentGroup;
+import Model.Timetable;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Occupancy of sessions that have been accepted but not yet committed, kept per timetable
+ * so the live timetables are not touched until the caller decides to commit.
+ * <p>
+ * By default a window is free only if it is free both in the live timetable and in the staged
+ * sessions. A staging area can instead be detached over a {@link #snapshot} of the live
+ * timetables: it then never reads the live timetables (or takes their locks), and only copies
+ * a snapshot index the first time it stages a session into that timetable.
+ */
+class StagedTimetables {
+    private final Map<Timetable, OccupancyIndex> base;
+    private final Map<Timetable, OccupancyIndex> occupancy = new IdentityHashMap<>();
+    private final Set<String> sessionIDs = new HashSet<>();
+
+    /** Creates a staging area layered over the live timetables. */
+    StagedTimetables() {
+        this.base = null;
+    }
+
+    /**
+     * Creates a staging area detached over a snapshot, which is shared and never modified.
+     *
+     * @param base occupancy of the live timetables, from {@link #snapshot}
+     */
+    StagedTimetables(Map<Timetable, OccupancyIndex> base) {
+        this.base = base;
+    }
+
+    /**
+     * Copies the occupancy of the given timetables, for use by detached staging areas.
+     *
+     * @param timetables the timetables to copy
+     * @return the copies, keyed by timetable identity
+     */
+    static Map<Timetable, OccupancyIndex> snapshot(Iterable<Timetable> timetables) {
+        Map<Timetable, OccupancyIndex> snapshot = new IdentityHashMap<>();
+        for (Timetable timetable : timetables) {
+            snapshot.put(timetable, timetable.copyOccupancy());
+        }
+        return snapshot;
+    }
+
+    /** Checks a session against the live timetable and the sessions staged for it. */
+    boolean isFree(Timetable timetable, Session session) {
+        return isFree(timetable, session.getStartMinuteOfWeek(), session.getEndMinuteOfWeek());
+    }
+
+    /** Checks a minute-of-week window against the live timetable and the sessions staged for it. */
+    boolean isFree(Timetable timetable, int startMinute, int endMinute) {
+        OccupancyIndex index = occupancy.get(timetable);
+        if (base != null) {
+            if (index == null) {
+                index = base.get(timetable);
+            }
+            return index == null || index.isFree(startMinute, endMinute);
+        }
+        if (!timetable.isFree(startMinute, endMinute)) {
+            return false;
+        }
+        return index == null || index.isFree(startMinute, endMinute);
+    }
+
+    boolean containsSession(String sessionID) {
+        return sessionIDs.contains(sessionID);
+    }
+
+    /** Stages a session in the timetables of its room, lecturer and groups. */
+    void add(Session session, Room room, Lecturer lecturer, List<StudentGroup> groups) {
+        occupy(room.getTimetable(), session);
+        occupy(lecturer.getTimetable(), session);
+        for (StudentGroup group : groups) {
+            occupy(group.getTimetable(), session);
+        }
+        sessionIDs.add(session.getSessionID());
+    }
+
+    private void occupy(Timetable timetable, Session session) {
+        OccupancyIndex index = occupancy.get(timetable);
+        if (index == null) {
+            OccupancyIndex shared = (base != null) ? base.get(timetable) : null;
+            index = (shared != null) ? shared.copy() : OccupancyIndex.create();
+            occupancy.put(timetable, index);
+        }
+        index.occupy(session.getStartMinuteOfWeek(), session.getEndMinuteOfWeek());
+    }
+}
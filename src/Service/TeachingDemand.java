@@ -0,0 +1,47 @@
+package Service;
+
+import Model.Lecturer;
+import Model.Room;
+import Model.StudentGroup;
+import java.util.List;
+
+/**
+ * One session that still has to be placed by the {@link TimetableGenerator}:
+ * a module's lecture, lab or tutorial for a set of student groups, together with
+ * the lecturers and rooms that are allowed to host it.
+ */
+class TeachingDemand {
+    final String moduleCode;
+    final String sessionType;
+    final List<StudentGroup> groups;
+    final int size;
+    final int duration;
+    final List<Lecturer> lecturers;
+    /** Rooms of the right type and capacity, smallest first. */
+    final List<Room> rooms;
+
+    TeachingDemand(String moduleCode, String sessionType, List<StudentGroup> groups, int size, int duration,
+                   List<Lecturer> lecturers, List<Room> rooms) {
+        this.moduleCode = moduleCode;
+        this.sessionType = sessionType;
+        this.groups = groups;
+        this.size = size;
+        this.duration = duration;
+        this.lecturers = lecturers;
+        this.rooms = rooms;
+    }
+
+    /** Number of (lecturer, room) pairs available; fewer options means harder to place. */
+    long options() {
+        return (long) lecturers.size() * rooms.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(moduleCode).append(' ').append(sessionType).append(" for ");
+        for (int i = 0; i < groups.size(); i++) {
+            sb.append(i == 0 ? "" : "|").append(groups.get(i).getGroupId());
+        }
+        return sb.append(" (").append(duration).append(" mins)").toString();
+    }
+}
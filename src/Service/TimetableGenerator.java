@@ -0,0 +1,497 @@
+package Service;
+
+import Model.*;
+import Model.Module;
+import Repositories.*;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Generates a conflict-free set of sessions from the weekly hours recorded on each {@link Module}
+ * and the module lists of each {@link Programme}.
+ * <p>
+ * Lectures are taught to all groups of a programme year together, labs and tutorials to each group.
+ * Labs go in {@link Room.RoomType#LAB} rooms and everything else in classrooms, and a room must hold
+ * every student attending. Lecturers are taken from {@link Module#getLecturerIDs()}.
+ * Sessions already in the timetables are treated as fixed bookings: they block their slots, and
+ * their minutes count towards the module's hours, so only the hours still missing for each module,
+ * group and session type are generated. Generating twice therefore adds nothing the second time.
+ * <p>
+ * Demands are placed most-constrained first (fewest lecturer/room options, then largest audience,
+ * then longest session). For each demand the slots are tried on the groups' least-loaded days first,
+ * and a slot is discarded as soon as a group or every lecturer is busy, before any room is checked.
+ * Rooms are best-fit: the smallest free room that is large enough.
+ * <p>
+ * When the greedy pass cannot place everything, further attempts with perturbed orderings can be
+ * run one after another ({@link #generate(int, long)}) or in parallel on a {@link ForkJoinPool}
+ * ({@link #generateParallel}). Every attempt plans against its own copy-on-write snapshot of the
+ * timetables, so parallel attempts share nothing but the best result and the stop flag.
+ */
+public class TimetableGenerator {
+
+    /** Days on which sessions are generated. */
+    static final DayOfWeek[] TEACHING_DAYS = {
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY
+    };
+    /** Hour of the first session start of the day. */
+    static final int FIRST_HOUR = 9;
+    /** Hour by which every session must have finished. */
+    static final int LAST_HOUR = 18;
+    /** Longest lab block in minutes; longer lab hours are split into several sessions. */
+    static final int MAX_LAB_MINUTES = 120;
+    /** How far ahead a demand may be swapped when perturbing the order for another attempt. */
+    static final int PERTURBATION_WINDOW = 8;
+
+    /** Orders demands most-constrained first. */
+    static final Comparator<TeachingDemand> BY_DIFFICULTY = Comparator
+            .comparingLong(TeachingDemand::options)
+            .thenComparing(Comparator.comparingInt((TeachingDemand d) -> d.size).reversed())
+            .thenComparing(Comparator.comparingInt((TeachingDemand d) -> d.duration).reversed());
+
+    private ProgrammeRepository programmeRepo;
+    private ModuleRepository moduleRepo;
+    private RoomRepository roomRepo;
+    private StudentGroupRepository groupRepo;
+    private UserRepository userRepo;
+    private SessionRepository sessionRepo;
+
+    /**
+     * Constructs the generator over the loaded repositories.
+     */
+    public TimetableGenerator(ProgrammeRepository programmeRepo, ModuleRepository moduleRepo, RoomRepository roomRepo,
+                              StudentGroupRepository groupRepo, UserRepository userRepo, SessionRepository sessionRepo) {
+        this.programmeRepo = programmeRepo;
+        this.moduleRepo = moduleRepo;
+        this.roomRepo = roomRepo;
+        this.groupRepo = groupRepo;
+        this.userRepo = userRepo;
+        this.sessionRepo = sessionRepo;
+    }
+
+    /**
+     * Generates sessions for every module of every programme. Nothing is committed: pass
+     * {@link GenerationResult#getSessions()} to {@link SchedulingService#scheduleAll} to keep them.
+     *
+     * @return the generated sessions and any demands that could not be placed
+     */
+    public GenerationResult generate() {
+        return generate(1, 0L);
+    }
+
+    /**
+     * Runs up to {@code attempts} greedy searches one after another, each with a different demand
+     * ordering, stopping at the first that places everything.
+     * Attempt 0 uses the plain most-constrained-first order; the others perturb it using {@code seed}.
+     *
+     * @param attempts maximum number of orderings to try
+     * @param seed seed for the perturbed orderings
+     * @return the best attempt: fewest unplaced demands, earliest attempt on ties
+     */
+    public GenerationResult generate(int attempts, long seed) {
+        long started = System.nanoTime();
+        Search search = new Search(seed);
+        for (int i = 0; i < attempts && !search.solved.get(); i++) {
+            search.run(i);
+        }
+        return search.result(started);
+    }
+
+    /**
+     * Runs the same orderings as {@link #generate(int, long)} as fork/join tasks, so they are searched
+     * on all cores of the pool at once. The attempts share the best result found so far, and as soon
+     * as one places every demand the others stop at their next demand.
+     *
+     * @param pool the pool to run the search in, e.g. {@link ForkJoinPool#commonPool()}
+     * @param attempts maximum number of orderings to try
+     * @param seed seed for the perturbed orderings
+     * @return the best attempt: fewest unplaced demands, earliest attempt on ties
+     */
+    public GenerationResult generateParallel(ForkJoinPool pool, int attempts, long seed) {
+        long started = System.nanoTime();
+        Search search = new Search(seed);
+        pool.invoke(new SearchTask(search, 0, attempts));
+        return search.result(started);
+    }
+
+    /**
+     * Turns programme module lists and module hours into individual demands, less the minutes each
+     * group already has scheduled for the module and session type. Demands that can never be placed (unknown module, no lecturer, no suitable room) are
+     * reported in {@code unplaced} instead of being returned.
+     */
+    List<TeachingDemand> buildDemands(List<String> unplaced) {
+        Map<String, List<StudentGroup>> groupsByProgrammeYear = new HashMap<>();
+        for (StudentGroup group : groupRepo.getAll()) {
+            groupsByProgrammeYear.computeIfAbsent(group.getProgrammeCode() + "/" + group.getYear(), k -> new ArrayList<>()).add(group);
+        }
+        List<Room> roomsBySize = roomRepo.getAll();
+        roomsBySize.sort(Comparator.comparingInt(Room::getCapacity).thenComparing(Room::getId));
+
+        List<TeachingDemand> demands = new ArrayList<>();
+        for (Programme programme : programmeRepo.getAll()) {
+            List<StudentGroup> groups = groupsByProgrammeYear.get(programme.getCode() + "/" + programme.getYear());
+            if (groups == null || groups.isEmpty()) {
+                continue;
+            }
+            groups.sort(Comparator.comparing(StudentGroup::getGroupId));
+
+            for (String moduleCode : programme.getModuleCodes()) {
+                Module module = moduleRepo.getByCode(moduleCode.trim());
+                if (module == null) {
+                    unplaced.add("Module " + moduleCode + " of programme " + programme.getCode() + " not found.");
+                    continue;
+                }
+                List<Lecturer> lecturers = new ArrayList<>();
+                for (String lecturerID : module.getLecturerIDs()) {
+                    User user = userRepo.getById(lecturerID.trim());
+                    if (user instanceof Lecturer) {
+                        lecturers.add((Lecturer) user);
+                    }
+                }
+                if (lecturers.isEmpty()) {
+                    unplaced.add("Module " + module.getCode() + " has no valid lecturer.");
+                    continue;
+                }
+
+                Map<String, Integer> scheduled = scheduledMinutes(module);
+                List<TeachingDemand> moduleDemands = new ArrayList<>();
+                // Lecture hour i is taught to every group that does not yet have i + 1 hours of lectures
+                for (int i = 0; i < module.getLectureHours(); i++) {
+                    List<StudentGroup> attending = new ArrayList<>();
+                    for (StudentGroup group : groups) {
+                        if (scheduled.getOrDefault(group.getGroupId() + "/Lecture", 0) < (i + 1) * 60) {
+                            attending.add(group);
+                        }
+                    }
+                    if (!attending.isEmpty()) {
+                        moduleDemands.add(demand(module, "Lecture", attending, 60, lecturers, roomsBySize));
+                    }
+                }
+                for (StudentGroup group : groups) {
+                    int labMinutes = module.getLabHours() * 60 - scheduled.getOrDefault(group.getGroupId() + "/Lab", 0);
+                    for (int minutes = labMinutes; minutes > 0; minutes -= MAX_LAB_MINUTES) {
+                        moduleDemands.add(demand(module, "Lab", List.of(group), Math.min(minutes, MAX_LAB_MINUTES), lecturers, roomsBySize));
+                    }
+                    int tutorialMinutes = module.getTutorialHours() * 60 - scheduled.getOrDefault(group.getGroupId() + "/Tutorial", 0);
+                    for (int minutes = tutorialMinutes; minutes > 0; minutes -= 60) {
+                        moduleDemands.add(demand(module, "Tutorial", List.of(group), 60, lecturers, roomsBySize));
+                    }
+                }
+                for (TeachingDemand demand : moduleDemands) {
+                    if (demand.rooms.isEmpty()) {
+                        unplaced.add(demand + ": no room large enough.");
+                    } else {
+                        demands.add(demand);
+                    }
+                }
+            }
+        }
+        return demands;
+    }
+
+    /**
+     * Adds up the minutes already scheduled for a module, per group and session type.
+     *
+     * @return minutes keyed by {@code "<group ID>/<session type>"}
+     */
+    private Map<String, Integer> scheduledMinutes(Module module) {
+        Map<String, Integer> minutes = new HashMap<>();
+        for (Session session : sessionRepo.getByModule(module.getCode())) {
+            for (String groupID : session.getStudentGroupIDs()) {
+                minutes.merge(groupID + "/" + session.getSessionType(), session.getSessionDuration(), Integer::sum);
+            }
+        }
+        return minutes;
+    }
+
+    private static TeachingDemand demand(Module module, String sessionType, List<StudentGroup> groups, int duration,
+                                         List<Lecturer> lecturers, List<Room> roomsBySize) {
+        int size = 0;
+        for (StudentGroup group : groups) {
+            size += group.size();
+        }
+        Room.RoomType type = sessionType.equals("Lab") ? Room.RoomType.LAB : Room.RoomType.CLASSROOM;
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : roomsBySize) {
+            if (room.getType() == type && room.getCapacity() >= size) {
+                rooms.add(room);
+            }
+        }
+        return new TeachingDemand(module.getCode(), sessionType, groups, size, duration, lecturers, rooms);
+    }
+
+    /**
+     * Places the demands in the given order, greedily and without committing anything.
+     *
+     * @param demands the demands, in the order they should be placed
+     * @param staged the staging area to check and record placements in
+     * @param unplaced receives a description of every demand that could not be placed
+     * @param cancelled checked between demands; when it returns {@code true} the search stops early
+     * @return the placed sessions
+     */
+    List<Session> solve(List<TeachingDemand> demands, StagedTimetables staged, List<String> unplaced, BooleanSupplier cancelled) {
+        Map<StudentGroup, int[]> minutesPerDay = new HashMap<>();
+        Set<String> moduleDays = new HashSet<>();
+        List<Session> sessions = new ArrayList<>(demands.size());
+        int nextId = 1;
+
+        for (TeachingDemand demand : demands) {
+            if (cancelled.getAsBoolean()) {
+                unplaced.add("Search cancelled before placing " + demand + ".");
+                continue;
+            }
+            Placement placement = place(demand, staged, minutesPerDay, moduleDays, true);
+            if (placement == null) {
+                // Allow the same module twice on one day before giving up
+                placement = place(demand, staged, minutesPerDay, moduleDays, false);
+            }
+            if (placement == null) {
+                unplaced.add(demand + ": no free slot.");
+                continue;
+            }
+
+            String id;
+            do {
+                id = String.format("GEN%05d", nextId++);
+            } while (sessionRepo.getById(id) != null);
+
+            List<String> groupIDs = new ArrayList<>(demand.groups.size());
+            for (StudentGroup group : demand.groups) {
+                groupIDs.add(group.getGroupId());
+            }
+            Session session = new Session(id, demand.moduleCode, demand.sessionType, placement.lecturer.getId(),
+                    placement.room.getId(), groupIDs, placement.day, LocalTime.of(placement.hour, 0), demand.duration);
+            staged.add(session, placement.room, placement.lecturer, demand.groups);
+            sessions.add(session);
+
+            int dayIndex = placement.day.getValue() - 1;
+            for (StudentGroup group : demand.groups) {
+                minutesPerDay.computeIfAbsent(group, g -> new int[7])[dayIndex] += demand.duration;
+                moduleDays.add(group.getGroupId() + "/" + demand.moduleCode + "/" + dayIndex);
+            }
+        }
+        return sessions;
+    }
+
+    /** Finds the first feasible slot, lecturer and room for a demand, or {@code null} if none exists. */
+    private Placement place(TeachingDemand demand, StagedTimetables staged, Map<StudentGroup, int[]> minutesPerDay,
+                            Set<String> moduleDays, boolean spreadModule) {
+        for (DayOfWeek day : daysByLoad(demand.groups, minutesPerDay)) {
+            int dayIndex = day.getValue() - 1;
+            if (spreadModule && teachesModuleOn(demand, dayIndex, moduleDays)) {
+                continue;
+            }
+            for (int hour = FIRST_HOUR; hour * 60 + demand.duration <= LAST_HOUR * 60; hour++) {
+                int start = Session.minuteOfWeek(day, LocalTime.of(hour, 0));
+                int end = start + demand.duration;
+
+                if (!groupsFree(demand.groups, staged, start, end)) {
+                    continue;
+                }
+                Lecturer lecturer = null;
+                for (Lecturer candidate : demand.lecturers) {
+                    if (staged.isFree(candidate.getTimetable(), start, end)) {
+                        lecturer = candidate;
+                        break;
+                    }
+                }
+                if (lecturer == null) {
+                    continue;
+                }
+                for (Room room : demand.rooms) {
+                    if (staged.isFree(room.getTimetable(), start, end)) {
+                        return new Placement(day, hour, lecturer, room);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean groupsFree(List<StudentGroup> groups, StagedTimetables staged, int start, int end) {
+        for (StudentGroup group : groups) {
+            if (!staged.isFree(group.getTimetable(), start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean teachesModuleOn(TeachingDemand demand, int dayIndex, Set<String> moduleDays) {
+        for (StudentGroup group : demand.groups) {
+            if (moduleDays.contains(group.getGroupId() + "/" + demand.moduleCode + "/" + dayIndex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Teaching days ordered by the total minutes already placed for the given groups, lightest first. */
+    private static List<DayOfWeek> daysByLoad(List<StudentGroup> groups, Map<StudentGroup, int[]> minutesPerDay) {
+        int[] load = new int[7];
+        for (StudentGroup group : groups) {
+            int[] minutes = minutesPerDay.get(group);
+            if (minutes != null) {
+                for (int d = 0; d < 7; d++) {
+                    load[d] += minutes[d];
+                }
+            }
+        }
+        List<DayOfWeek> days = new ArrayList<>(List.of(TEACHING_DAYS));
+        days.sort(Comparator.comparingInt(d -> load[d.getValue() - 1]));
+        return days;
+    }
+
+    /**
+     * Returns attempt {@code attempt}'s ordering of the demands: the given order for attempt 0,
+     * otherwise the same order with nearby demands randomly swapped, so each attempt explores a
+     * different branch while still placing hard demands early.
+     */
+    static List<TeachingDemand> ordering(List<TeachingDemand> sorted, int attempt, long seed) {
+        List<TeachingDemand> order = new ArrayList<>(sorted);
+        if (attempt == 0) {
+            return order;
+        }
+        Random random = new Random(seed * 31 + attempt);
+        for (int i = 0; i < order.size() - 1; i++) {
+            if (random.nextInt(4) == 0) {
+                int j = Math.min(order.size() - 1, i + 1 + random.nextInt(PERTURBATION_WINDOW));
+                Collections.swap(order, i, j);
+            }
+        }
+        return order;
+    }
+
+    /** State shared by all attempts of one generation run. */
+    private class Search {
+        final List<String> problems = new ArrayList<>();
+        final List<TeachingDemand> sorted;
+        final Map<Timetable, OccupancyIndex> snapshot;
+        final long seed;
+        final AtomicBoolean solved = new AtomicBoolean();
+        final AtomicReference<Attempt> best = new AtomicReference<>();
+
+        Search(long seed) {
+            this.seed = seed;
+            this.sorted = buildDemands(problems);
+            sorted.sort(BY_DIFFICULTY);
+
+            Set<Timetable> timetables = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (TeachingDemand demand : sorted) {
+                for (StudentGroup group : demand.groups) {
+                    timetables.add(group.getTimetable());
+                }
+                for (Lecturer lecturer : demand.lecturers) {
+                    timetables.add(lecturer.getTimetable());
+                }
+                for (Room room : demand.rooms) {
+                    timetables.add(room.getTimetable());
+                }
+            }
+            this.snapshot = StagedTimetables.snapshot(timetables);
+        }
+
+        /** Runs one attempt and offers it as the best result. */
+        void run(int index) {
+            if (solved.get()) {
+                return;
+            }
+            List<String> unplaced = new ArrayList<>();
+            List<Session> sessions = solve(ordering(sorted, index, seed), new StagedTimetables(snapshot), unplaced, solved::get);
+            Attempt attempt = new Attempt(index, sessions, unplaced);
+            best.accumulateAndGet(attempt, Attempt::better);
+            if (unplaced.isEmpty()) {
+                solved.set(true);
+            }
+        }
+
+        GenerationResult result(long started) {
+            Attempt attempt = best.get();
+            List<String> unplaced = new ArrayList<>(problems);
+            List<Session> sessions = new ArrayList<>();
+            if (attempt != null) {
+                unplaced.addAll(attempt.unplaced);
+                sessions = attempt.sessions;
+            }
+            return new GenerationResult(sessions, unplaced, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /** The outcome of one ordering. */
+    private static class Attempt {
+        final int index;
+        final List<Session> sessions;
+        final List<String> unplaced;
+
+        Attempt(int index, List<Session> sessions, List<String> unplaced) {
+            this.index = index;
+            this.sessions = sessions;
+            this.unplaced = unplaced;
+        }
+
+        static Attempt better(Attempt a, Attempt b) {
+            if (a == null) {
+                return b;
+            }
+            if (a.unplaced.size() != b.unplaced.size()) {
+                return a.unplaced.size() < b.unplaced.size() ? a : b;
+            }
+            return a.index <= b.index ? a : b;
+        }
+    }
+
+    /** Splits a range of attempts in halves until each task runs a single attempt. Never serialized. */
+    @SuppressWarnings("serial")
+    private static class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        SearchTask(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    search.run(from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchTask(search, from, mid), new SearchTask(search, mid, to));
+        }
+    }
+
+    /** A chosen slot, lecturer and room for one demand. */
+    private static class Placement {
+        final DayOfWeek day;
+        final int hour;
+        final Lecturer lecturer;
+        final Room room;
+
+        Placement(DayOfWeek day, int hour, Lecturer lecturer, Room room) {
+            this.day = day;
+            this.hour = hour;
+            this.lecturer = lecturer;
+            this.room = room;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package Service;
+
+import Model.*;
+import Repositories.*;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Improves the soft quality of an existing, feasible timetable by simulated annealing.
+ * <p>
+ * The soft cost of a timetable is the sum of:
+ * <ul>
+ *     <li>idle minutes between the first and last session of each student group on each day,</li>
+ *     <li>minutes by which a lecturer's teaching day spans more than {@link #LECTURER_SPAN_MINUTES},</li>
+ *     <li>empty seats, i.e. room capacity above the number of students attending.</li>
+ * </ul>
+ * Each move relocates one session to another teaching slot (and sometimes another suitable room), or
+ * swaps the slots of two sessions of equal length. A move is only considered if the room, lecturer and
+ * every group are free at the new time, so the hard constraints of {@link SchedulingService} always hold.
+ * The cost change of a move is computed from the few (resource, day) terms it touches rather than by
+ * rescoring the week, so a move costs O(sessions per resource per day).
+ * <p>
+ * The optimiser works on its own copy of the timetable and never modifies the repositories.
+ */
+public class TimetableOptimiser {
+
+    /** A lecturer day longer than this many minutes, from first start to last end, is penalised. */
+    static final int LECTURER_SPAN_MINUTES = 6 * 60;
+    /** Weight of one idle minute in a student group's day. */
+    static final int GAP_WEIGHT = 2;
+    /** Weight of one minute of excess lecturer span. */
+    static final int SPAN_WEIGHT = 1;
+    /** Weight of one empty seat in a session's room. */
+    static final int SEAT_WEIGHT = 1;
+    /** Probability of a swap move rather than a relocation. */
+    private static final double SWAP_PROBABILITY = 0.3;
+    /** Probability that a relocation also tries a different room. */
+    private static final double ROOM_CHANGE_PROBABILITY = 0.3;
+
+    private RoomRepository roomRepo;
+    private StudentGroupRepository groupRepo;
+    private SessionRepository sessionRepo;
+
+    // Working copy of the timetable, one entry per session
+    private Session[] sessions;
+    private int[] start;
+    private int[] duration;
+    private int[] room;
+    private int[] lecturer;
+    private int[][] groups;
+    private int[] size;
+
+    // Resources: rooms first, then lecturers, then groups
+    private List<Room> rooms;
+    private int lecturerBase;
+    private int groupBase;
+    private OccupancyIndex[] occupancy;
+    /** Sessions of each lecturer and group per day, indexed by resource * 7 + day. */
+    private List<List<Integer>> byResourceDay;
+    /** Candidate rooms of each session: same type, large enough, smallest first. */
+    private int[][] roomChoices;
+
+    /**
+     * Constructs the optimiser over the loaded repositories.
+     *
+     * @param roomRepo repository of rooms
+     * @param groupRepo repository of student groups
+     * @param sessionRepo repository of the sessions to improve
+     */
+    public TimetableOptimiser(RoomRepository roomRepo, StudentGroupRepository groupRepo, SessionRepository sessionRepo) {
+        this.roomRepo = roomRepo;
+        this.groupRepo = groupRepo;
+        this.sessionRepo = sessionRepo;
+    }
+
+    /**
+     * Runs simulated annealing on the sessions of the session repository.
+     *
+     * @param timeBudgetMillis how long to search for, in milliseconds
+     * @param seed seed for the random moves
+     * @return the improved sessions and the cost before and after
+     */
+    public OptimisationResult optimise(long timeBudgetMillis, long seed) {
+        long started = System.nanoTime();
+        build();
+        Random random = new Random(seed);
+        long initialCost = totalCost();
+        long cost = initialCost;
+        long bestCost = cost;
+        int[] bestStart = start.clone();
+        int[] bestRoom = room.clone();
+        int accepted = 0;
+        long iterations = 0;
+
+        double startTemperature = 50.0;
+        double endTemperature = 0.5;
+        long deadline = started + timeBudgetMillis * 1_000_000;
+        double temperature = startTemperature;
+
+        while (sessions.length > 0) {
+            if ((iterations & 255) == 0) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                double progress = (double) (now - started) / (deadline - started);
+                temperature = startTemperature * Math.pow(endTemperature / startTemperature, progress);
+            }
+            iterations++;
+
+            Long delta = random.nextDouble() < SWAP_PROBABILITY ? trySwap(random) : tryRelocate(random);
+            if (delta == null) {
+                continue;
+            }
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                cost += delta;
+                accepted++;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestStart = start.clone();
+                    bestRoom = room.clone();
+                }
+            } else {
+                undo();
+            }
+        }
+
+        List<Session> improved = new ArrayList<>(sessions.length);
+        List<Session> changed = new ArrayList<>();
+        for (int i = 0; i < sessions.length; i++) {
+            Session original = sessions[i];
+            if (bestStart[i] == original.getStartMinuteOfWeek() && rooms.get(bestRoom[i]).getId().equals(original.getRoomID())) {
+                improved.add(original);
+                continue;
+            }
+            Session moved = new Session(original.getSessionID(), original.getModuleCode(), original.getSessionType(),
+                    original.getLecturerID(), rooms.get(bestRoom[i]).getId(), original.getStudentGroupIDs(),
+                    DayOfWeek.of(bestStart[i] / Session.MINUTES_PER_DAY + 1),
+                    LocalTime.of(bestStart[i] % Session.MINUTES_PER_DAY / 60, bestStart[i] % 60),
+                    original.getSessionDuration());
+            improved.add(moved);
+            changed.add(moved);
+        }
+        return new OptimisationResult(improved, changed, initialCost, bestCost, accepted, iterations);
+    }
+
+    /** Builds the working copy of the timetable from the repositories. */
+    private void build() {
+        List<Session> all = sessionRepo.getAll();
+        all.sort(Comparator.comparing(Session::getSessionID));
+        int n = all.size();
+        sessions = all.toArray(new Session[0]);
+        start = new int[n];
+        duration = new int[n];
+        room = new int[n];
+        lecturer = new int[n];
+        groups = new int[n][];
+        size = new int[n];
+
+        rooms = roomRepo.getAll();
+        rooms.sort(Comparator.comparingInt(Room::getCapacity).thenComparing(Room::getId));
+        Map<String, Integer> roomIndex = new HashMap<>();
+        for (int r = 0; r < rooms.size(); r++) {
+            roomIndex.put(rooms.get(r).getId(), r);
+        }
+        Map<String, Integer> lecturerIndex = new HashMap<>();
+        Map<String, Integer> groupIndex = new HashMap<>();
+        List<StudentGroup> groupList = new ArrayList<>();
+        for (Session session : all) {
+            lecturerIndex.putIfAbsent(session.getLecturerID(), lecturerIndex.size());
+            for (String groupID : session.getStudentGroupIDs()) {
+                if (!groupIndex.containsKey(groupID)) {
+                    groupIndex.put(groupID, groupIndex.size());
+                    groupList.add(groupRepo.getById(groupID));
+                }
+            }
+        }
+        lecturerBase = rooms.size();
+        groupBase = lecturerBase + lecturerIndex.size();
+        int resources = groupBase + groupIndex.size();
+        occupancy = new OccupancyIndex[resources];
+        for (int r = 0; r < resources; r++) {
+            occupancy[r] = OccupancyIndex.create();
+        }
+        byResourceDay = new ArrayList<>(resources * 7);
+        for (int k = 0; k < resources * 7; k++) {
+            byResourceDay.add(new ArrayList<>(4));
+        }
+
+        roomChoices = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Session session = sessions[i];
+            start[i] = session.getStartMinuteOfWeek();
+            duration[i] = session.getSessionDuration();
+            room[i] = roomIndex.get(session.getRoomID());
+            lecturer[i] = lecturerBase + lecturerIndex.get(session.getLecturerID());
+            List<String> groupIDs = session.getStudentGroupIDs();
+            groups[i] = new int[groupIDs.size()];
+            for (int g = 0; g < groupIDs.size(); g++) {
+                int index = groupIndex.get(groupIDs.get(g));
+                groups[i][g] = groupBase + index;
+                StudentGroup group = groupList.get(index);
+                size[i] += (group != null) ? group.size() : 0;
+            }
+            Room current = rooms.get(room[i]);
+
+            List<Integer> choices = new ArrayList<>();
+            for (int r = 0; r < rooms.size(); r++) {
+                Room candidate = rooms.get(r);
+                if (candidate.getType() == current.getType() && candidate.getCapacity() >= Math.min(size[i], current.getCapacity())) {
+                    choices.add(r);
+                }
+            }
+            roomChoices[i] = choices.stream().mapToInt(Integer::intValue).toArray();
+
+            place(i);
+        }
+    }
+
+    // --- Moves ---
+
+    /** Sessions and previous placements of the last applied move, for {@link #undo()}. */
+    private int[] lastMoved = new int[0];
+    private int[] lastStart = new int[0];
+    private int[] lastRoom = new int[0];
+
+    /** Moves one random session to a random teaching slot, and possibly another room. */
+    private Long tryRelocate(Random random) {
+        int i = random.nextInt(sessions.length);
+        int newStart = randomSlot(random, duration[i]);
+        int newRoom = room[i];
+        if (random.nextDouble() < ROOM_CHANGE_PROBABILITY && roomChoices[i].length > 0) {
+            newRoom = roomChoices[i][random.nextInt(roomChoices[i].length)];
+        }
+        if (newStart == start[i] && newRoom == room[i]) {
+            return null;
+        }
+        return apply(new int[]{i}, new int[]{newStart}, new int[]{newRoom});
+    }
+
+    /** Exchanges the slots of two random sessions of the same length, each keeping its room. */
+    private Long trySwap(Random random) {
+        int i = random.nextInt(sessions.length);
+        int j = random.nextInt(sessions.length);
+        if (i == j || duration[i] != duration[j] || start[i] == start[j]) {
+            return null;
+        }
+        return apply(new int[]{i, j}, new int[]{start[j], start[i]}, new int[]{room[i], room[j]});
+    }
+
+    /**
+     * Applies a move if every new placement is free, returning the change in cost,
+     * or returns {@code null} and leaves everything untouched if a hard constraint would break.
+     */
+    private Long apply(int[] moved, int[] newStart, int[] newRoom) {
+        int[] keys = affectedDays(moved, newStart);
+        long before = 0;
+        for (int key : keys) {
+            before += dayCost(key);
+        }
+        for (int i : moved) {
+            before += seatCost(i, room[i]);
+        }
+
+        int[] oldStart = new int[moved.length];
+        int[] oldRoom = new int[moved.length];
+        for (int m = 0; m < moved.length; m++) {
+            oldStart[m] = start[moved[m]];
+            oldRoom[m] = room[moved[m]];
+            unplace(moved[m]);
+        }
+        int placed = 0;
+        for (; placed < moved.length; placed++) {
+            int i = moved[placed];
+            start[i] = newStart[placed];
+            room[i] = newRoom[placed];
+            if (!fits(i)) {
+                break;
+            }
+            place(i);
+        }
+        if (placed < moved.length) {
+            for (int m = 0; m < placed; m++) {
+                unplace(moved[m]);
+            }
+            for (int m = 0; m < moved.length; m++) {
+                start[moved[m]] = oldStart[m];
+                room[moved[m]] = oldRoom[m];
+                place(moved[m]);
+            }
+            return null;
+        }
+
+        long after = 0;
+        for (int key : keys) {
+            after += dayCost(key);
+        }
+        for (int i : moved) {
+            after += seatCost(i, room[i]);
+        }
+        lastMoved = moved;
+        lastStart = oldStart;
+        lastRoom = oldRoom;
+        return after - before;
+    }
+
+    /** Reverts the last applied move. */
+    private void undo() {
+        for (int i : lastMoved) {
+            unplace(i);
+        }
+        for (int m = 0; m < lastMoved.length; m++) {
+            start[lastMoved[m]] = lastStart[m];
+            room[lastMoved[m]] = lastRoom[m];
+            place(lastMoved[m]);
+        }
+    }
+
+    /** Picks a random on-the-hour start on a teaching day such that the session ends in teaching hours. */
+    private static int randomSlot(Random random, int minutes) {
+        DayOfWeek day = TimetableGenerator.TEACHING_DAYS[random.nextInt(TimetableGenerator.TEACHING_DAYS.length)];
+        int latestHour = Math.max(TimetableGenerator.FIRST_HOUR, (TimetableGenerator.LAST_HOUR * 60 - minutes) / 60);
+        int hour = TimetableGenerator.FIRST_HOUR + random.nextInt(latestHour - TimetableGenerator.FIRST_HOUR + 1);
+        return Session.minuteOfWeek(day, LocalTime.of(hour, 0));
+    }
+
+    // --- Occupancy ---
+
+    private boolean fits(int i) {
+        int end = start[i] + duration[i];
+        if (end > (start[i] / Session.MINUTES_PER_DAY + 1) * Session.MINUTES_PER_DAY) {
+            return false;
+        }
+        if (!occupancy[room[i]].isFree(start[i], end) || !occupancy[lecturer[i]].isFree(start[i], end)) {
+            return false;
+        }
+        for (int g : groups[i]) {
+            if (!occupancy[g].isFree(start[i], end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void place(int i) {
+        int end = start[i] + duration[i];
+        int day = start[i] / Session.MINUTES_PER_DAY;
+        occupancy[room[i]].occupy(start[i], end);
+        occupancy[lecturer[i]].occupy(start[i], end);
+        byResourceDay.get(lecturer[i] * 7 + day).add(i);
+        for (int g : groups[i]) {
+            occupancy[g].occupy(start[i], end);
+            byResourceDay.get(g * 7 + day).add(i);
+        }
+    }
+
+    private void unplace(int i) {
+        int end = start[i] + duration[i];
+        int day = start[i] / Session.MINUTES_PER_DAY;
+        occupancy[room[i]].release(start[i], end);
+        occupancy[lecturer[i]].release(start[i], end);
+        byResourceDay.get(lecturer[i] * 7 + day).remove(Integer.valueOf(i));
+        for (int g : groups[i]) {
+            occupancy[g].release(start[i], end);
+            byResourceDay.get(g * 7 + day).remove(Integer.valueOf(i));
+        }
+    }
+
+    // --- Cost ---
+
+    private long totalCost() {
+        long cost = 0;
+        for (int k = lecturerBase * 7; k < byResourceDay.size(); k++) {
+            cost += dayCost(k);
+        }
+        for (int i = 0; i < sessions.length; i++) {
+            cost += seatCost(i, room[i]);
+        }
+        return cost;
+    }
+
+    /**
+     * The distinct (lecturer or group, day) keys whose cost can change when the given sessions move
+     * to the given starts: each session's lecturer and groups on its current and its new day.
+     */
+    private int[] affectedDays(int[] moved, int[] newStart) {
+        int[] keys = new int[0];
+        int count = 0;
+        for (int m = 0; m < moved.length; m++) {
+            int i = moved[m];
+            int[] days = {start[i] / Session.MINUTES_PER_DAY, newStart[m] / Session.MINUTES_PER_DAY};
+            for (int day : days) {
+                if (keys.length < count + groups[i].length + 1) {
+                    keys = Arrays.copyOf(keys, (count + groups[i].length + 1) * 2);
+                }
+                count = addKey(keys, count, lecturer[i] * 7 + day);
+                for (int g : groups[i]) {
+                    count = addKey(keys, count, g * 7 + day);
+                }
+            }
+        }
+        return Arrays.copyOf(keys, count);
+    }
+
+    private static int addKey(int[] keys, int count, int key) {
+        for (int k = 0; k < count; k++) {
+            if (keys[k] == key) {
+                return count;
+            }
+        }
+        keys[count] = key;
+        return count + 1;
+    }
+
+    /** Soft cost of one lecturer or group on one day. */
+    private long dayCost(int key) {
+        List<Integer> day = byResourceDay.get(key);
+        if (day.size() < 2) {
+            return 0;
+        }
+        int first = Integer.MAX_VALUE;
+        int last = 0;
+        int taught = 0;
+        for (int i : day) {
+            first = Math.min(first, start[i]);
+            last = Math.max(last, start[i] + duration[i]);
+            taught += duration[i];
+        }
+        if (key / 7 >= groupBase) {
+            return (long) GAP_WEIGHT * (last - first - taught);
+        }
+        return (long) SPAN_WEIGHT * Math.max(0, last - first - LECTURER_SPAN_MINUTES);
+    }
+
+    private long seatCost(int i, int r) {
+        return (long) SEAT_WEIGHT * Math.max(0, rooms.get(r).getCapacity() - size[i]);
+    }
+}
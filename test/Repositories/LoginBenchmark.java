@@ -0,0 +1,115 @@
+package Repositories;
+
+import Model.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark for {@link UserRepository#authenticate}, the whole login: a synthetic population of students
+ * ({@link #DEFAULT_USERS} by default, as at registration week) log in concurrently from
+ * {@link #DEFAULT_THREADS} threads, typing their emails in random case. It runs once with the cache of
+ * recent logins turned off ({@link UserRepository#LOGIN_CACHE_PROPERTY}), where every login pays for the
+ * password hash, and once with it on, where only a user's first login does.
+ * <p>
+ * Hashing is deliberately slow, so the logins come from a smaller set of {@link #DEFAULT_ACTIVE} active
+ * students who log in again and again, and all students share one precomputed hash rather than each
+ * paying for their own. Every login must find the right user; the run fails with status 1 otherwise.
+ * Run it with the sources compiled onto the class path, e.g.
+ * <pre>
+ * javac -d out $(find src test -name '*.java')
+ * java -cp out Repositories.LoginBenchmark [users] [threads] [active]
+ * </pre>
+ */
+public class LoginBenchmark {
+    static final int DEFAULT_USERS = 40_000;
+    static final int DEFAULT_THREADS = 8;
+    static final int DEFAULT_ACTIVE = 64;
+    /** Logins per round with the cache on; with it off each active student logs in once. */
+    static final int CACHED_LOGINS = 400_000;
+    static final int ROUNDS = 3;
+    static final String PASSWORD = "registration-week";
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_USERS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THREADS;
+        int active = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ACTIVE;
+
+        String hash = PasswordHash.hash(PASSWORD);
+        Random random = new Random(42);
+        int[] activeUsers = new int[active];
+        for (int i = 0; i < active; i++) {
+            activeUsers[i] = random.nextInt(userCount);
+        }
+
+        System.setProperty(UserRepository.LOGIN_CACHE_PROPERTY, "false");
+        UserRepository uncached = populate(userCount, hash);
+        int[] once = activeUsers.clone();
+        run("Cache off", uncached, threads, once, random);
+
+        System.setProperty(UserRepository.LOGIN_CACHE_PROPERTY, "true");
+        UserRepository cached = populate(userCount, hash);
+        run("Cache on, first logins", cached, threads, once, random);
+        int[] repeated = new int[CACHED_LOGINS];
+        for (int i = 0; i < repeated.length; i++) {
+            repeated[i] = activeUsers[random.nextInt(active)];
+        }
+        for (int round = 1; round <= ROUNDS; round++) {
+            run("Cache on, round " + round, cached, threads, repeated, random);
+        }
+    }
+
+    private static UserRepository populate(int userCount, String hash) {
+        UserRepository userRepo = new UserRepository();
+        StudentGroup group = new StudentGroup("BENCH-G", "BENCH", 1, new ArrayList<>());
+        for (int i = 0; i < userCount; i++) {
+            userRepo.add(new Student("BENCH-S" + i, "Student " + i, "student" + i + "@studentmail.ul.ie",
+                    Password.hashed(hash), group));
+        }
+        return userRepo;
+    }
+
+    /** Logs each of the given students in once, from {@code threads} threads, and prints the throughput. */
+    private static void run(String label, UserRepository userRepo, int threads, int[] students, Random random)
+            throws Exception {
+        int logins = students.length;
+        String[] emails = new String[logins];
+        for (int i = 0; i < logins; i++) {
+            String email = "student" + students[i] + "@studentmail.ul.ie";
+            emails[i] = random.nextBoolean() ? email.toUpperCase(Locale.ROOT) : email;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = next.getAndIncrement(); i < logins; i = next.getAndIncrement()) {
+                    User user = userRepo.authenticate(emails[i], PASSWORD);
+                    if (user != null && user.getId().equals("BENCH-S" + students[i])) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        pool.shutdown();
+
+        System.out.printf("%s: %d threads, %,d logins in %.1f ms (%,.0f logins/s)%n", label, threads, logins,
+                elapsedNanos / 1e6, logins / (elapsedNanos / 1e9));
+        if (succeeded.get() != logins) {
+            System.err.println("FAILED: only " + succeeded.get() + " of " + logins + " logins found their user");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package Service;
+
+import Model.*;
+import Repositories.*;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress test for {@link SchedulingService} under concurrent use: {@link #THREADS} threads schedule random
+ * sessions over a small pool of rooms, lecturers and groups, so that most attempts contend for the same
+ * resources, and now and then remove one of their own sessions again. Afterwards no room, lecturer or
+ * group timetable may hold two overlapping sessions, and the timetables must agree with the repository.
+ * <p>
+ * The project has no test framework, so this is a plain program: it prints a summary and exits with
+ * status 1 on the first failed check. Run it with the sources compiled onto the class path, e.g.
+ * <pre>
+ * javac -d out $(find src test -name '*.java')
+ * java -cp out Service.SchedulingServiceStressTest [seed]
+ * </pre>
+ */
+public class SchedulingServiceStressTest {
+    static final int THREADS = 16;
+    static final int ATTEMPTS_PER_THREAD = 4000;
+    static final int ROOMS = 12;
+    static final int LECTURERS = 12;
+    static final int GROUPS = 12;
+
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+        try {
+            run(seed);
+        } catch (AssertionError e) {
+            System.err.println("FAILED (seed " + seed + "): " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static void run(long seed) throws Exception {
+        RoomRepository roomRepo = new RoomRepository();
+        StudentGroupRepository groupRepo = new StudentGroupRepository();
+        UserRepository userRepo = new UserRepository();
+        SessionRepository sessionRepo = new SessionRepository();
+        List<Room> rooms = new ArrayList<>();
+        List<Lecturer> lecturers = new ArrayList<>();
+        List<StudentGroup> groups = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room("STRESS-R" + i, 200, Room.RoomType.CLASSROOM);
+            roomRepo.add(room);
+            rooms.add(room);
+        }
+        for (int i = 0; i < LECTURERS; i++) {
+            Lecturer lecturer = new Lecturer("STRESS-L" + i, "Lecturer " + i, "stress.l" + i + "@ul.ie", Password.plainText("pw"));
+            userRepo.add(lecturer);
+            lecturers.add(lecturer);
+        }
+        for (int i = 0; i < GROUPS; i++) {
+            StudentGroup group = new StudentGroup("STRESS-G" + i, "STRESS", 1, new ArrayList<>());
+            groupRepo.add(group);
+            groups.add(group);
+        }
+        SchedulingService service = new SchedulingService(roomRepo, groupRepo, sessionRepo, userRepo);
+
+        // The service reports each conflict on System.out; thousands are expected here
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                Random random = new Random(seed * 31 + thread);
+                List<String> mine = new ArrayList<>();
+                int scheduled = 0;
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (!mine.isEmpty() && random.nextInt(10) == 0) {
+                        service.removeSession(mine.remove(random.nextInt(mine.size())));
+                        continue;
+                    }
+                    List<String> attending = new ArrayList<>();
+                    attending.add("STRESS-G" + random.nextInt(GROUPS));
+                    if (random.nextBoolean()) {
+                        String second = "STRESS-G" + random.nextInt(GROUPS);
+                        if (!attending.contains(second)) {
+                            attending.add(second);
+                        }
+                    }
+                    Session session = new Session("STRESS-" + thread + "-" + i, "STRESS", "Lecture",
+                            "STRESS-L" + random.nextInt(LECTURERS), "STRESS-R" + random.nextInt(ROOMS), attending,
+                            DayOfWeek.of(1 + random.nextInt(5)), LocalTime.of(9 + random.nextInt(8), 15 * random.nextInt(4)),
+                            30 + 30 * random.nextInt(4));
+                    if (service.scheduleSession(session)) {
+                        mine.add(session.getSessionID());
+                        scheduled++;
+                    }
+                }
+                return scheduled;
+            }));
+        }
+        int scheduled = 0;
+        try {
+            for (Future<Integer> worker : workers) {
+                scheduled += worker.get();
+            }
+            pool.shutdown();
+            check(pool.awaitTermination(1, TimeUnit.MINUTES), "workers did not finish");
+        } finally {
+            System.setOut(out);
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // No timetable holds overlapping sessions
+        Map<String, Integer> expectedCounts = new HashMap<>();
+        for (Session session : sessionRepo.getAll()) {
+            expectedCounts.merge("room " + session.getRoomID(), 1, Integer::sum);
+            expectedCounts.merge("lecturer " + session.getLecturerID(), 1, Integer::sum);
+            for (String groupID : session.getStudentGroupIDs()) {
+                expectedCounts.merge("group " + groupID, 1, Integer::sum);
+            }
+        }
+        for (Room room : rooms) {
+            checkTimetable("room " + room.getId(), room.getTimetable(), sessionRepo, expectedCounts);
+        }
+        for (Lecturer lecturer : lecturers) {
+            checkTimetable("lecturer " + lecturer.getId(), lecturer.getTimetable(), sessionRepo, expectedCounts);
+        }
+        for (StudentGroup group : groups) {
+            checkTimetable("group " + group.getGroupId(), group.getTimetable(), sessionRepo, expectedCounts);
+        }
+
+        System.out.println("OK (seed " + seed + "): " + THREADS + " threads, " + scheduled + " sessions scheduled, "
+                + sessionRepo.size() + " kept after removals, no double-booking, " + elapsedMillis + " ms");
+    }
+
+    /** Checks that a timetable has no two overlapping sessions and holds exactly the repository's sessions for its owner. */
+    private static void checkTimetable(String owner, Timetable timetable, SessionRepository sessionRepo,
+                                       Map<String, Integer> expectedCounts) {
+        List<Session> sessions = new ArrayList<>(timetable.getSchedulesSessions());
+        sessions.sort(Comparator.comparingInt(Session::getStartMinuteOfWeek));
+        for (int i = 1; i < sessions.size(); i++) {
+            Session previous = sessions.get(i - 1);
+            Session next = sessions.get(i);
+            check(!previous.overLapsWith(next), owner + " is double-booked: " + previous.getSessionID()
+                    + " overlaps " + next.getSessionID());
+        }
+        for (Session session : sessions) {
+            check(session.sameAs(sessionRepo.getById(session.getSessionID())),
+                    owner + " holds " + session.getSessionID() + ", which is not in the repository");
+        }
+        int expected = expectedCounts.getOrDefault(owner, 0);
+        check(sessions.size() == expected, owner + " holds " + sessions.size() + " sessions, the repository has " + expected);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}